@@ -2,13 +2,14 @@
 package de.smits_net.games.examples.dodger;
 
 import de.smits_net.games.framework.board.Board;
+import de.smits_net.games.framework.board.Layer;
+import de.smits_net.games.framework.image.BackgroundImage;
 import de.smits_net.games.framework.image.ImageBase;
 import de.smits_net.games.framework.sprite.Sprite;
 
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Point;
-import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -52,8 +53,6 @@ public class DodgerBoard extends Board {
 
     private Random rnd = new Random();
 
-    private BufferedImage background;
-
     /**
      * Initialize the game.
      */
@@ -61,7 +60,13 @@ public class DodgerBoard extends Board {
         rabbit = new Rabbit(this,
                 new Point(INITIAL_POS_RABBIT_X, INITIAL_POS_RABBIT_Y));
         addKeyListener(rabbit);
-        background = ImageBase.load("/de/smits_net/games/examples/dodger/background.png");
+
+        // the background never changes, draw it once
+        Layer background = new Layer(-1);
+        background.setStatic(true);
+        background.add(new BackgroundImage(0,
+                ImageBase.load("/de/smits_net/games/examples/dodger/background.png")));
+        addLayer(background);
     }
 
 
@@ -110,9 +115,4 @@ public class DodgerBoard extends Board {
         writeText(g, 10, 20, String.format("Score: %d", score));
         centerText(g, "Game Over");
     }
-
-    @Override
-    protected void drawBackground(Graphics g) {
-        g.drawImage(background, 0, 0, this);
-    }
 }
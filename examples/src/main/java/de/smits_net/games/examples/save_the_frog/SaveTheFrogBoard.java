@@ -2,6 +2,7 @@
 package de.smits_net.games.examples.save_the_frog;
 
 import de.smits_net.games.framework.board.Board;
+import de.smits_net.games.framework.board.Layer;
 import de.smits_net.games.framework.image.BackgroundImage;
 import de.smits_net.games.framework.image.ImageBase;
 import de.smits_net.games.framework.sprite.SpriteCollection;
@@ -26,9 +27,6 @@ public class SaveTheFrogBoard extends Board {
     /** Delay between frames in milli seconds. */
     private static final int DELAY = 20;
 
-    /** Background image. */
-    private BackgroundImage backgroundImage;
-
     /** The frog. */
     private Frog frog;
 
@@ -59,6 +57,9 @@ public class SaveTheFrogBoard extends Board {
      */
     public SaveTheFrogBoard() {
         super(DELAY, BOARD_WIDTH, BOARD_HEIGHT, Color.BLACK);
+
+        // the background does not move, only redraw the cars and the frog
+        setDirtyRectangles(true);
         init();
     }
 
@@ -66,8 +67,17 @@ public class SaveTheFrogBoard extends Board {
      * Initialize the board.
      */
     private void init() {
-        backgroundImage = new BackgroundImage(0,
-                ImageBase.load("/de/smits_net/games/examples/save_the_frog/background.png"));
+        // the background never changes, draw it once
+        Layer background = new Layer(-1);
+        background.setStatic(true);
+        background.add(new BackgroundImage(0,
+                ImageBase.load("/de/smits_net/games/examples/save_the_frog/background.png")));
+        addLayer(background);
+
+        // the cars are drawn on top of the frog
+        Layer cars = new Layer(0);
+        addLayer(cars);
+
         frog = new Frog(this, new Point(10, 10));
         addKeyListener(frog);
 
@@ -86,6 +96,7 @@ public class SaveTheFrogBoard extends Board {
             }
 
             lanes.add(collection);
+            cars.add(collection);
         }
     }
 
@@ -107,16 +118,10 @@ public class SaveTheFrogBoard extends Board {
     @Override
     public void drawGame(Graphics g) {
         frog.draw(g, this);
-        lanes.forEach(l -> l.draw(g, this));
     }
 
     @Override
     protected void drawGameOver(Graphics g) {
         centerText(g, "Game over");
     }
-
-    @Override
-    protected void drawBackground(Graphics g) {
-        backgroundImage.draw(g, this);
-    }
 }
@@ -29,6 +29,9 @@ public class Alien extends AnimatedSprite {
         super(board, startPoint, BoundaryPolicy.NONE,
                 new AnimatedImage(50, true, Resources.IMAGE_ALIEN));
         velocity.setVelocity(Direction.WEST, ALIEN_SPEED);
+
+        // hit only by the visible parts of the alien
+        setPixelPerfect(true);
     }
 
     /**
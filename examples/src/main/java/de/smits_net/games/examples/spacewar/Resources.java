@@ -10,14 +10,16 @@ public class Resources {
 
     public static final ImagePack IMAGE_ALIEN =
             ImagePack.loadStripedImage(
-                    r("spike_fist_move_strip5.png"), 5);
+                    r("spike_fist_move_strip5.png"), 5)
+                    .createCollisionMasks();
 
     public static final ImagePack IMAGE_MISSILE =
             new ImagePack(r("rocket.png"));
 
     public static final ImagePack IMAGE_EXPLOSION =
             ImagePack.loadStripedImage(
-                    r("explosion_1.png"), 43);
+                    r("explosion_1.png"), 43)
+                    .createCollisionMasks();
 
     public static final ImagePack IMAGE_SPACECRAFT_SOLO =
             new ImagePack(r("craft_1.png"));
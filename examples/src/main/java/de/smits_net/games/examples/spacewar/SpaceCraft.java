@@ -2,7 +2,9 @@
 package de.smits_net.games.examples.spacewar;
 
 import de.smits_net.games.framework.board.Board;
+import de.smits_net.games.framework.board.InputState;
 import de.smits_net.games.framework.image.AnimatedImage;
+import de.smits_net.games.framework.image.ImagePack;
 import de.smits_net.games.framework.sprite.DirectionAnimatedSprite;
 import de.smits_net.games.framework.sprite.SpriteCollection;
 
@@ -22,24 +24,18 @@ public class SpaceCraft extends DirectionAnimatedSprite {
     /** Speed of the animatedImage. */
     private static final int ANIMATION_SPEED = 10;
 
-    /** Image for the craft without thrusters.*/
-    private static final AnimatedImage CRAFT_NOT_MOVING =
-            new AnimatedImage(ANIMATION_SPEED, true,
-                    Resources.IMAGE_SPACECRAFT_SOLO);
-
-    /** Image for the craft accelerating forward. */
-    private static final AnimatedImage CRAFT_ACCELERATING_FORWARD =
-            new AnimatedImage(ANIMATION_SPEED, true,
-                    Resources.IMAGE_SPACECRAFT_FORWARD);
-
-    /** Image for the craft accelerating backward. */
-    private static final AnimatedImage CRAFT_ACCELERATING_BACKWARD =
-            new AnimatedImage(ANIMATION_SPEED, true,
-                    Resources.IMAGE_SPACECRAFT_BACKWARD);
+    /**
+     * Number of ticks between two missiles while the fire key is held
+     * down, about the auto-repeat rate of the keyboard.
+     */
+    private static final int FIRE_INTERVAL = 4;
 
     /** Missiles fired. */
     private final SpriteCollection<Missile> missiles = new SpriteCollection<>();
 
+    /** Ticks left until the next missile can be fired by holding the key. */
+    private int reload;
+
     /**
      * Create a new craft at the given position.
      *
@@ -48,16 +44,28 @@ public class SpaceCraft extends DirectionAnimatedSprite {
      */
     public SpaceCraft(Board board, Point startPoint) {
         super(board, startPoint, BoundaryPolicy.STOP,
-                CRAFT_NOT_MOVING,
-                CRAFT_NOT_MOVING,
-                CRAFT_ACCELERATING_FORWARD,
-                CRAFT_NOT_MOVING,
-                CRAFT_ACCELERATING_BACKWARD
+                animation(Resources.IMAGE_SPACECRAFT_SOLO),
+                animation(Resources.IMAGE_SPACECRAFT_SOLO),
+                animation(Resources.IMAGE_SPACECRAFT_FORWARD),
+                animation(Resources.IMAGE_SPACECRAFT_SOLO),
+                animation(Resources.IMAGE_SPACECRAFT_BACKWARD)
         );
 
         setBorder(Resources.POLYGON_SPACECRAFT);
     }
 
+    /**
+     * Create an animation of the craft. Every craft needs its own
+     * animations, because they store the image currently shown and games
+     * running in parallel must not share them.
+     *
+     * @param images the images of the animation
+     * @return the animation
+     */
+    private static AnimatedImage animation(ImagePack images) {
+        return new AnimatedImage(ANIMATION_SPEED, true, images);
+    }
+
     /**
      * Return the missiles fired.
      *
@@ -96,29 +104,34 @@ public class SpaceCraft extends DirectionAnimatedSprite {
         setActive(false);
     }
 
+    /**
+     * Accelerate the spaceship depending on the keys held down and
+     * move it.
+     */
     @Override
-    public void keyPressed(KeyEvent e) {
+    public void move() {
 
-        // Accelerate the spaceship depending on the
-        // pressed key
-        int key = e.getKeyCode();
+        InputState input = board.getInput();
 
-        if (key == KeyEvent.VK_SPACE) { fire(); }
-        if (key == KeyEvent.VK_LEFT)  { velocity.x = -CRAFT_SPEED; }
-        if (key == KeyEvent.VK_RIGHT) { velocity.x = CRAFT_SPEED; }
-        if (key == KeyEvent.VK_UP)    { velocity.y = -CRAFT_SPEED; }
-        if (key == KeyEvent.VK_DOWN)  { velocity.y = CRAFT_SPEED; }
-    }
+        if (reload > 0) {
+            reload--;
+        }
 
-    @Override
-    public void keyReleased(KeyEvent e) {
+        // every press fires, holding the key down keeps firing
+        if (input.isKeyPressed(KeyEvent.VK_SPACE)
+                || (input.isKeyDown(KeyEvent.VK_SPACE) && (reload == 0))) {
+            fire();
+            reload = FIRE_INTERVAL;
+        }
+
+        velocity.x = 0;
+        velocity.y = 0;
 
-        // If key is released, stop spaceship motor
-        int key = e.getKeyCode();
+        if (input.isKeyDown(KeyEvent.VK_LEFT))  { velocity.x -= CRAFT_SPEED; }
+        if (input.isKeyDown(KeyEvent.VK_RIGHT)) { velocity.x += CRAFT_SPEED; }
+        if (input.isKeyDown(KeyEvent.VK_UP))    { velocity.y -= CRAFT_SPEED; }
+        if (input.isKeyDown(KeyEvent.VK_DOWN))  { velocity.y += CRAFT_SPEED; }
 
-        if (key == KeyEvent.VK_LEFT)  { velocity.x = 0; }
-        if (key == KeyEvent.VK_RIGHT) { velocity.x = 0; }
-        if (key == KeyEvent.VK_UP)    { velocity.y = 0; }
-        if (key == KeyEvent.VK_DOWN)  { velocity.y = 0; }
+        super.move();
     }
 }
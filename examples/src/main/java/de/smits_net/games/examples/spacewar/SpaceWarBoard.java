@@ -2,13 +2,13 @@
 package de.smits_net.games.examples.spacewar;
 
 import de.smits_net.games.framework.board.Board;
+import de.smits_net.games.framework.board.FrameGovernor;
 import de.smits_net.games.framework.sprite.Sprite;
 import de.smits_net.games.framework.sprite.SpriteCollection;
 
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Point;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -45,6 +45,9 @@ public class SpaceWarBoard extends Board {
     private final StarField starField3 = new StarField(
             -0.3, BOARD_WIDTH, BOARD_HEIGHT, Color.DARK_GRAY, 0.001);
 
+    /** Number of star fields drawn, depends on the quality. */
+    private int visibleStarFields = 3;
+
     /** Spacecraft. */
     private SpaceCraft craft;
 
@@ -56,6 +59,7 @@ public class SpaceWarBoard extends Board {
      */
     public SpaceWarBoard() {
         super(DELAY, BOARD_WIDTH, BOARD_HEIGHT, Color.BLACK);
+        getFrameGovernor().setAdaptiveQuality(true);
         init();
     }
 
@@ -65,7 +69,6 @@ public class SpaceWarBoard extends Board {
     private void init() {
         craft = new SpaceCraft(this, new Point(
                 INITIAL_POS_CRAFT_X, INITIAL_POS_CRAFT_Y));
-        addKeyListener(craft);
         addMouseListener(craft);
         Random rnd = new Random();
 
@@ -85,12 +88,39 @@ public class SpaceWarBoard extends Board {
     protected void drawBackground(Graphics g) {
         starField1.draw(g, null);
         starField1.move();
-        starField2.draw(g, null);
+
+        if (visibleStarFields > 1) {
+            starField2.draw(g, null);
+        }
+
         starField2.move();
-        starField3.draw(g, null);
+
+        if (visibleStarFields > 2) {
+            starField3.draw(g, null);
+        }
+
         starField3.move();
     }
 
+    /**
+     * @see Board#qualityChanged(FrameGovernor.Quality)
+     */
+    @Override
+    protected void qualityChanged(FrameGovernor.Quality quality) {
+
+        // drop the parallax layers on slow machines
+        switch (quality) {
+            case LOW:
+                visibleStarFields = 1;
+                break;
+            case MEDIUM:
+                visibleStarFields = 2;
+                break;
+            default:
+                visibleStarFields = 3;
+        }
+    }
+
     /**
      * Draw the game objects.
      *
@@ -152,7 +182,7 @@ public class SpaceWarBoard extends Board {
      * Update the aliens.
      */
     private void updateAliens() {
-        aliens.forEach(Sprite::move);
+        aliens.move();
         aliens.removeIf(a -> !a.isVisible());
     }
 
@@ -161,26 +191,22 @@ public class SpaceWarBoard extends Board {
      */
     public void handleCollisions() {
 
-        for (Alien alien : aliens) {
-            if (craft.intersects(alien) && alien.isActive()) {
+        aliens.forEachIntersecting(craft, alien -> {
+            if (alien.isActive()) {
                 craft.explode();
                 alien.explode();
             }
-        }
+        });
 
         if (!craft.isVisible()) {
             stopGame();
         }
 
-        List<Missile> ms = craft.getMissiles();
-
-        for (Missile m : ms) {
-            for (Alien alien : aliens) {
-                if (m.intersects(alien) && alien.isActive()) {
-                    m.setVisible(false);
-                    alien.explode();
-                }
+        craft.getMissiles().forEachOverlap(aliens, (m, alien) -> {
+            if (alien.isActive()) {
+                m.setVisible(false);
+                alien.explode();
             }
-        }
+        });
     }
 }
@@ -2,21 +2,39 @@
 package de.smits_net.games.framework.board;
 
 import de.smits_net.games.framework.Constants;
+import de.smits_net.games.framework.board.FrameStatistics.Phase;
+import de.smits_net.games.framework.image.TextCache;
+import de.smits_net.games.framework.jfr.BlitEvent;
+import de.smits_net.games.framework.jfr.FrameEvent;
+import de.smits_net.games.framework.jfr.RenderEvent;
+import de.smits_net.games.framework.jfr.SkippedFramesEvent;
+import de.smits_net.games.framework.jfr.UpdateEvent;
 
 import javax.swing.JPanel;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.DisplayMode;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
-import java.awt.Image;
-import java.awt.Toolkit;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
 import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import static java.awt.event.KeyEvent.KEY_PRESSED;
 import static java.awt.event.KeyEvent.KEY_RELEASED;
@@ -56,22 +74,126 @@ import static java.awt.event.MouseEvent.MOUSE_RELEASED;
  * To ensure the desired performance of the game, the game loop measures the
  * frames per second and skips the drawing if necessary to avoid a drop in
  * the game performance. Nevertheless, the game update method is called.
+ * How many frames may be skipped is derived from the measured costs by the
+ * {@link FrameGovernor} returned by {@link Board#getFrameGovernor()},
+ * which can also ask the game to lower the quality of the drawing.
+ * The time spent in the different phases of the frames is recorded and
+ * can be inspected using {@link Board#getFrameStatistics()}. Additionally,
+ * the phases are reported as Java Flight Recorder events (see package
+ * {@link de.smits_net.games.framework.jfr}). While the game is running, the
+ * {@link DiagnosticsOverlay} returned by {@link Board#getDiagnostics()}
+ * shows these values on top of the game.
+ * <p>
+ * The game loop reads the time from a {@link GameClock}, which can be
+ * replaced to run the game faster than real time or with a deterministic
+ * time (see {@link Board#setClock(GameClock)}).
+ * <p>
+ * Alternatively, the game loop can run the updates with a fixed rate and
+ * render as often as the display refreshes (see
+ * {@link LoopMode#FIXED_TIMESTEP} and {@link Board#setRefreshRate(int)}).
+ * In this case, the {@link Board#drawGame(Graphics, double)} method receives the
+ * fraction of time passed between two updates and can use it to draw the
+ * game objects at interpolated positions.
+ * <p>
+ * The frames are drawn into a back buffer and then copied to the screen.
+ * Which kind of back buffer is used can be selected with
+ * {@link Board#setRenderingMode(RenderingMode)}. On machines with more than
+ * one core, the drawing can be moved to a separate thread, so that the
+ * next update runs while the last frame is drawn (see
+ * {@link Board#setPipelined(boolean)}). Games with a static background
+ * can let the board draw only the regions that changed (see
+ * {@link Board#setDirtyRectangles(boolean)}).
+ * <p>
+ * Instead of drawing everything in the drawing methods, sprites and images
+ * can be put into {@link Layer}s added with {@link Board#addLayer(Layer)}.
+ * Layers are drawn ordered by their z-order, static layers are drawn
+ * once and then copied as a single image.
  * <p>
  * If your game should use mouse or keyboard for interaction, you have to
  * register a mouse or keyboard listener using the
  * {@link Board#addMouseListener(MouseListener)} or the
- * {@link Board#addKeyListener(KeyListener)} methods.
+ * {@link Board#addKeyListener(KeyListener)} methods. Alternatively, the
+ * game objects can query the state of keyboard and mouse during the
+ * update using the {@link InputState} returned by {@link Board#getInput()}.
  *
  * @author Thomas Smits
  */
 public abstract class Board extends JPanel
-        implements Runnable, KeyListener, MouseListener {
+        implements Runnable, KeyListener, MouseListener, MouseMotionListener {
+
+    /**
+     * How the game loop schedules the updates and the rendering.
+     */
+    public enum LoopMode {
+        /**
+         * One update per rendered frame. If rendering is too slow,
+         * additional updates are executed without rendering.
+         */
+        VARIABLE_TIMESTEP,
+
+        /**
+         * Updates with a fixed rate, rendering with the refresh rate of the
+         * display and an interpolation factor passed to the drawing
+         * methods.
+         */
+        FIXED_TIMESTEP
+    }
+
+    /**
+     * How the frames are drawn and brought to the screen.
+     */
+    public enum RenderingMode {
+        /** Draw into an image in main memory and copy it to the screen. */
+        IMAGE,
+
+        /**
+         * Draw into a hardware accelerated volatile image and copy it to
+         * the screen.
+         */
+        VOLATILE_IMAGE,
+
+        /**
+         * Draw into the accelerated back buffers of a buffer strategy and
+         * flip or copy them to the screen.
+         */
+        BUFFER_STRATEGY
+    }
+
+    /**
+     * What the game loop does while the board is suspended, e.g. because
+     * its window is iconified.
+     */
+    public enum SuspendPolicy {
+        /** The game continues as if the board was shown. */
+        NONE,
+
+        /**
+         * The game loop waits without using the CPU until the board is
+         * resumed. The game continues where it stopped.
+         */
+        PAUSE,
+
+        /**
+         * The game is updated with the normal rate, but the frames are
+         * neither drawn nor brought to the screen.
+         */
+        UPDATE_ONLY
+    }
 
-    /** Number of updates without sleep before a yield is triggered. */
-    private static final int NO_DELAYS_PER_YIELD = 16;
+    /** Maximum number of events of one kind waiting for dispatch. */
+    private static final int EVENT_QUEUE_CAPACITY = 256;
 
-    /** Maximum number of frames skipped in the output. */
-    private static final int MAX_FRAME_SKIPS = 5;
+    /** Marker for a mouse position that is not known yet. */
+    private static final long NO_MOUSE_POSITION = Long.MIN_VALUE;
+
+    /** Refresh rate assumed if the rate of the display is unknown. */
+    private static final int DEFAULT_REFRESH_RATE = 60;
+
+    /** Font of centered texts. */
+    private static final Font CENTER_FONT = new Font("Helvetica", Font.BOLD, 14);
+
+    /** Maximum number of rendered texts kept by the board. */
+    private static final int TEXT_CACHE_SIZE = 64;
 
     /* Time between two debug updates. */
     private static final long DEBUG_FREQUENCY
@@ -80,6 +202,51 @@ public abstract class Board extends JPanel
     /** Indicator that the game is still running. */
     private volatile boolean gameRunning = true;
 
+    /** Mode of the game loop. */
+    private volatile LoopMode loopMode = LoopMode.VARIABLE_TIMESTEP;
+
+    /** Frames rendered per second, 0 to use the rate of the display. */
+    private volatile int refreshRate;
+
+    /** What the game loop does while the board is suspended. */
+    private volatile SuspendPolicy suspendPolicy = SuspendPolicy.PAUSE;
+
+    /** The game requested the suspension. */
+    private volatile boolean suspendRequested;
+
+    /** The window of the board is iconified or hidden. */
+    private volatile boolean windowHidden;
+
+    /** The window of the board does not have the focus. */
+    private volatile boolean windowInactive;
+
+    /** Suspend the board if its window does not have the focus. */
+    private volatile boolean suspendWhenInactive;
+
+    /**
+     * Lock guarding the pause of the game loop. Unlike a monitor, waiting
+     * for it does not pin a virtual thread to its carrier thread.
+     */
+    private final Lock suspendLock = new ReentrantLock();
+
+    /** Signalled when the board may have been resumed. */
+    private final Condition resumed = suspendLock.newCondition();
+
+    /** The board was suspended in an earlier frame. */
+    private boolean wasSuspended;
+
+    /** Number of game updates executed so far. */
+    private volatile long ticks;
+
+    /** Source of the time. */
+    private volatile GameClock clock = new RealTimeClock();
+
+    /** Durations of the phases of the frames. */
+    private final FrameStatistics statistics = new FrameStatistics();
+
+    /** Adapts the game loop to the speed of the machine. */
+    private final FrameGovernor governor;
+
     /** Dimension of the board. */
     private final Dimension dimension;
 
@@ -89,8 +256,38 @@ public abstract class Board extends JPanel
     /** The thread. */
     private Thread thread;
 
-    /** The Canvas the game is drawn on. */
-    private Image image;
+    /** How the frames are drawn. */
+    private RenderingMode renderingMode = RenderingMode.IMAGE;
+
+    /** The target the game is drawn on. */
+    private RenderTarget renderTarget = new ImageRenderTarget(this);
+
+    /** Draw the frames in a separate thread. */
+    private volatile boolean pipelined;
+
+    /** Pipeline to the render thread, only used in the pipelined mode. */
+    private RenderPipeline pipeline;
+
+    /** Draw and show only the regions of the board that changed. */
+    private volatile boolean dirtyRectangles;
+
+    /** Request to draw and show the complete board with the next frame. */
+    private final AtomicBoolean fullFrameRequested = new AtomicBoolean(true);
+
+    /** The regions drawn are tracked for the current frame. */
+    private boolean trackingRegions;
+
+    /** Regions drawn in the current frame. */
+    private DirtyRegions drawnRegions;
+
+    /** Regions drawn in the previous frame. */
+    private DirtyRegions previousRegions;
+
+    /** Regions to be shown, {@code null} to show the complete frame. */
+    private List<Rectangle> shownRegions;
+
+    /** Copy of the background used to restore the dirty regions. */
+    private BufferedImage backgroundCache;
 
     /** Color of the background of the board. */
     private final Color backgroundColor;
@@ -98,14 +295,57 @@ public abstract class Board extends JPanel
     /** Frame per second counter (only used if debugging is on). */
     private long fps;
 
+    /** Text of the frame per second counter. */
+    private String fpsText = "FPS: 0";
+
+    /** Images of the texts drawn on the board. */
+    private final TextCache textCache = new TextCache(TEXT_CACHE_SIZE);
+
+    /** Diagnostic information drawn on top of the game. */
+    private final DiagnosticsOverlay diagnostics;
+
+    /** The part of the world shown on the board. */
+    private final Camera camera;
+
+    /** x coordinate of the camera while the world is drawn, else 0. */
+    private int worldX;
+
+    /** y coordinate of the camera while the world is drawn, else 0. */
+    private int worldY;
+
+    /** The world is drawn into the frame, objects outside are skipped. */
+    private boolean culling;
+
+    /** The layers ordered by their z-order, replaced on every change. */
+    private volatile Layer[] layers = new Layer[0];
+
     /** Timestamp of the debug line's last update. */
     private long lastDebugUpdate;
 
-    /** The captured mouse events. */
-    private final List<MouseEvent> mouseEvents = new CopyOnWriteArrayList<>();
+    /** The captured mouse button and enter/exit events. */
+    private final EventRingBuffer<MouseEvent> mouseEvents
+            = new EventRingBuffer<>(EVENT_QUEUE_CAPACITY);
+
+    /**
+     * Latest position of the mouse, x in the upper and y in the lower 32
+     * bits. Movements only update the position, so that a flood of them
+     * cannot push the button events out of the full ring buffer.
+     */
+    private volatile long mousePosition = NO_MOUSE_POSITION;
+
+    /** The captured key events. */
+    private final EventRingBuffer<KeyEvent> keyEvents
+            = new EventRingBuffer<>(EVENT_QUEUE_CAPACITY);
+
+    /** State of keyboard and mouse for the current update. */
+    private final InputState input = new InputState();
 
-    /** The captured key events for typed keys. */
-    private final List<KeyEvent> keyEvents = new CopyOnWriteArrayList<>();
+    /** Dispatcher for the captured key events. */
+    private final Consumer<KeyEvent> keyDispatcher = this::dispatchKeyEvent;
+
+    /** Dispatcher for the captured mouse events. */
+    private final Consumer<MouseEvent> mouseDispatcher
+            = this::dispatchMouseEvent;
 
     /** All game elements that want to get key events. */
     private final List<KeyListener> keyListener = new CopyOnWriteArrayList<>();
@@ -134,10 +374,18 @@ public abstract class Board extends JPanel
      */
     public Board(int delay, Dimension dimension, Color color) {
         this.delay = delay * Constants.NANOSECONDS_PER_MILLISECOND;
+        this.governor = new FrameGovernor(this.delay);
+        this.diagnostics = new DiagnosticsOverlay(this.delay, textCache);
         this.backgroundColor = color;
         this.dimension = dimension;
+        this.camera = new Camera(this);
+        this.drawnRegions = new DirtyRegions(dimension.width,
+                dimension.height);
+        this.previousRegions = new DirtyRegions(dimension.width,
+                dimension.height);
         super.addKeyListener(this);
         super.addMouseListener(this);
+        addMouseMotionListener(this);
 
         setFocusable(true);
         setBackground(color);
@@ -171,381 +419,1666 @@ public abstract class Board extends JPanel
     }
 
     /**
-     * Stops the game.
+     * Sets the mode of the game loop. The mode has to be set before the
+     * board is displayed, later changes have no effect.
+     *
+     * @param loopMode the mode to be used
      */
-    public void stopGame() {
-        gameRunning = false;
+    public void setLoopMode(LoopMode loopMode) {
+        this.loopMode = loopMode;
     }
 
     /**
-     * The game loop for the game logic. This method will be called
-     * periodically be the framework to execute the game. All game
-     * actions must be triggered from this loop.
+     * Returns the mode of the game loop.
      *
-     * @return true if the game should continue, otherwise false
+     * @return the mode
      */
-    public abstract boolean updateGame();
+    public LoopMode getLoopMode() {
+        return loopMode;
+    }
 
     /**
-     * The graphics output of the game. This method is called
-     * periodically by the framework to draw the game graphics.
+     * Sets how many frames per second are rendered in the mode
+     * {@link LoopMode#FIXED_TIMESTEP}. By default, the refresh rate of the
+     * display showing the board is used, or {@value #DEFAULT_REFRESH_RATE}
+     * if it is unknown.
      *
-     * @param g Graphics context.
+     * @param refreshRate frames per second, 0 to use the rate of the
+     *      display
      */
-    public abstract void drawGame(Graphics g);
+    public void setRefreshRate(int refreshRate) {
 
-    @Override
-    public final synchronized void addKeyListener(KeyListener l) {
-        keyListener.add(l);
+        if (refreshRate < 0) {
+            throw new IllegalArgumentException(
+                    "Refresh rate must not be negative: " + refreshRate);
+        }
+
+        this.refreshRate = refreshRate;
     }
 
-    @Override
-    public final synchronized void addMouseListener(MouseListener l) {
-        mouseListener.add(l);
+    /**
+     * Returns how many frames per second are rendered in the mode
+     * {@link LoopMode#FIXED_TIMESTEP}.
+     *
+     * @return frames per second
+     */
+    public int getRefreshRate() {
+
+        int rate = refreshRate;
+
+        return (rate > 0) ? rate : displayRefreshRate();
     }
 
     /**
-     * Prepare the graphics context and then call the render methods.
+     * Determine the refresh rate of the display showing the board.
+     *
+     * @return frames per second
      */
-    private void triggerRendering() {
+    private int displayRefreshRate() {
 
-        // We use double buffering. This means that we do not draw on
-        // the screen directly but into an image that is eventually
-        // blitted to screen in one step. Therefore, we need an image
-        // as the target of our drawing operations.
-        if (image == null) {
-            image = createImage(dimension.width, dimension.height);
-            if (image == null) {
-                return;
-            }
+        if (GraphicsEnvironment.isHeadless()) {
+            return DEFAULT_REFRESH_RATE;
         }
 
-        Graphics g = image.getGraphics();
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        GraphicsDevice device = (gc != null) ? gc.getDevice()
+                : GraphicsEnvironment.getLocalGraphicsEnvironment()
+                        .getDefaultScreenDevice();
+        int rate = device.getDisplayMode().getRefreshRate();
 
-        // clear the background
-        g.setColor(backgroundColor);
-        g.fillRect(0, 0, dimension.width, dimension.height);
+        return (rate != DisplayMode.REFRESH_RATE_UNKNOWN)
+                ? rate : DEFAULT_REFRESH_RATE;
+    }
 
-        // Let subclass draw its background
-        drawBackground(g);
+    /**
+     * Sets the way the frames are drawn and brought to the screen. The mode
+     * has to be set before the board is displayed, typically in the
+     * constructor of the subclass.
+     *
+     * @param renderingMode the mode to be used
+     * @throws IllegalStateException if the game is already running
+     */
+    public void setRenderingMode(RenderingMode renderingMode) {
 
-        // Draw game
-        if (gameRunning) {
-            drawGame(g);
+        if (thread != null) {
+            throw new IllegalStateException(
+                    "Rendering mode cannot be changed while game is running");
         }
-        else {
-            drawGameOver(g);
+
+        if (renderingMode == this.renderingMode) {
+            return;
         }
 
-        if (Constants.DEBUG_SHOW_FPS) {
-            g.setColor(Color.RED);
-            g.drawString(String.format("FPS: %d", fps),
-                    0, dimension.height - 5);
+        if (this.renderingMode == RenderingMode.BUFFER_STRATEGY) {
+            throw new IllegalStateException(
+                    "Rendering mode cannot be changed after "
+                            + RenderingMode.BUFFER_STRATEGY + " was set");
+        }
+
+        switch (renderingMode) {
+            case VOLATILE_IMAGE:
+                renderTarget = new VolatileImageRenderTarget(this);
+                break;
+            case BUFFER_STRATEGY:
+                renderTarget = new BufferStrategyRenderTarget(this);
+                break;
+            default:
+                renderTarget = new ImageRenderTarget(this);
         }
 
-        g.dispose();
+        this.renderingMode = renderingMode;
     }
 
     /**
-     * Paints the screen.
+     * Returns the way the frames are drawn.
+     *
+     * @return the mode
      */
-    private void paintScreen() {
+    public RenderingMode getRenderingMode() {
+        return renderingMode;
+    }
 
-        try {
-            Graphics g = this.getGraphics();
-            if ((g != null) && (image != null)) {
-                g.drawImage(image, 0, 0, null);
-                g.dispose();
-            }
+    /**
+     * Moves the drawing of the frames to a separate render thread. The
+     * game thread still calls the drawing methods of the board, but the
+     * graphics context passed to them only records the operations. The
+     * render thread executes them, while the game thread continues with
+     * the next update. This almost halves the time of a frame if update
+     * and drawing take about the same time.
+     * <p>
+     * In the pipelined mode, the graphics context passed to the drawing
+     * methods is no {@link java.awt.Graphics2D} and the content of images
+     * must not be changed after they were drawn, because they are drawn
+     * later by the render thread. The frames run by
+     * {@link HeadlessRunner#runFrames(int)} are always drawn by the
+     * calling thread.
+     *
+     * @param pipelined {@code true} to draw the frames in a separate
+     *                  thread
+     * @throws IllegalStateException if the game is already running
+     */
+    public void setPipelined(boolean pipelined) {
 
-            Toolkit.getDefaultToolkit().sync();
-        }
-        catch (Exception e) {
-            System.err.println("Graphics error: " + e);
+        if (thread != null) {
+            throw new IllegalStateException(
+                    "Pipelining cannot be changed while game is running");
         }
+
+        this.pipelined = pipelined;
     }
 
     /**
-     * Draw a text centered on the screen.
+     * Indicates whether the frames are drawn in a separate thread.
      *
-     * @param g the graphics context
-     * @param msg the message to be shown
+     * @return {@code true} if the frames are drawn in a separate thread
      */
-    protected final void centerText(Graphics g, String msg) {
-        Font small = new Font("Helvetica", Font.BOLD, 14);
-        FontMetrics fm = getFontMetrics(small);
-
-        g.setColor(Color.white);
-        g.setFont(small);
-        g.drawString(msg, (dimension.width - fm.stringWidth(msg)) / 2,
-                dimension.height / 2);
+    public boolean isPipelined() {
+        return pipelined;
     }
 
     /**
-     * Writes a text at the given position.
+     * Switches the dirty rectangle mode on or off. In this mode, the board
+     * does not draw the complete frame. Instead, it restores the background
+     * only where something was drawn in the last frame, draws the game and
+     * brings only the changed regions to the screen. This requires that
+     * <ul>
+     *     <li>{@link Board#drawBackground(Graphics)} draws the same
+     *     background every frame (call {@link Board#markAllDirty()} if it
+     *     changes) and</li>
+     *     <li>everything drawn by {@link Board#drawGame(Graphics)} is
+     *     reported with {@link Board#markDirty(int, int, int, int)}. The
+     *     sprites and the text methods of the board do this
+     *     automatically.</li>
+     * </ul>
+     * <p>
+     * The complete frame is still drawn if the back buffer lost its
+     * content, if the changed regions cover a large part of the board and
+     * after the game is over. The mode has no effect in the pipelined mode
+     * and with {@link RenderingMode#BUFFER_STRATEGY}.
      *
-     * @param g graphics context
-     * @param x x position of the text
-     * @param y y position of the text
-     * @param msg the message to be drawn
+     * @param dirtyRectangles {@code true} to draw only the changed regions
      */
-    protected final void writeText(Graphics g, int x, int y, String msg) {
-        g.setColor(Color.WHITE);
-        g.drawString(msg, x, y);
+    public void setDirtyRectangles(boolean dirtyRectangles) {
+        this.dirtyRectangles = dirtyRectangles;
+        markAllDirty();
     }
 
     /**
-     * Draw game over message.
+     * Indicates whether the dirty rectangle mode is used.
      *
-     * @param g the graphics context
+     * @return {@code true} if only the changed regions are drawn
      */
-    protected void drawGameOver(Graphics g) {
-        // do nothing
+    public boolean isDirtyRectangles() {
+        return dirtyRectangles;
     }
 
     /**
-     * Draw the background. The default implementation clears the
-     * background with the current background color.
+     * Reports a region drawn in the current frame. Has to be called while
+     * drawing the game in the dirty rectangle mode for everything that is
+     * not drawn by a sprite. The coordinates are those of the graphics
+     * context, i.e. world coordinates while the game is drawn (see
+     * {@link Camera}).
      *
-     * @param g the graphics context
+     * @param x x coordinate of the region
+     * @param y y coordinate of the region
+     * @param width width of the region
+     * @param height height of the region
+     * @see Board#setDirtyRectangles(boolean)
      */
-    protected void drawBackground(Graphics g) {
-        g.setColor(getBackground());
-        g.fillRect(0, 0, dimension.width, dimension.height);
+    public void markDirty(int x, int y, int width, int height) {
+        if (trackingRegions) {
+            drawnRegions.add(x - worldX, y - worldY, width, height);
+        }
     }
 
     /**
-     * @see javax.swing.JComponent#addNotify()
+     * Checks whether a game object can skip drawing itself at the given
+     * area because it would not be seen. This is only the case while the
+     * world is drawn into the frame (see {@link Camera}) and the area lies
+     * outside of the viewport. Objects drawn into the background or into
+     * the image of a static layer are never culled.
+     *
+     * @param x x coordinate of the area
+     * @param y y coordinate of the area
+     * @param width width of the area
+     * @param height height of the area
+     * @return {@code true} if drawing can be skipped
      */
-    @Override
-    public void addNotify() {
-        super.addNotify();
-
-        thread = new Thread(this);
-        thread.start();
+    public boolean isCulled(int x, int y, int width, int height) {
+        return culling && !camera.isVisible(x, y, width, height);
     }
 
     /**
-     * @see java.lang.Runnable#run()
+     * Returns the x coordinate of the world drawn at the left border of
+     * the board while the world is drawn.
+     *
+     * @return the x coordinate or 0 if the world is not drawn
      */
-    @Override
-    public final void run() {
-
-        // Updates that were not fast enough and therefore caused a
-        // missed sleep
-        int numberOfDelays = 0;
-
-        // Time we slipped over the expected FPS
-        long excess = 0L;
-
-        // correction of sleep time
-        long sleepCorrection = 0L;
-
-        // The approach used here is taken from the book
-        // Killer Game Programming in Java by Andrew Davison
-        // O’Reilly Media, 2005
-        while (gameRunning) {
-
-            // time before game actions
-            long beforeTime = System.nanoTime();
-
-            // The listeners will be called by the AWT thread with the
-            // consequence that events occur in parallel to the game
-            // loop. This requires some synchronization because otherwise
-            // strange ConcurrentModificationExceptions or other thread
-            // issues will occur. To avoid this, I gobble all the events
-            // with this class and then dispatch them synchronously to
-            // the other game elements here.
-            KeyEvent keyEvent;
-
-            while ((keyEvent = fetchEvent(keyEvents)) != null) {
-                for (KeyListener l : keyListener)  {
-                    switch (keyEvent.getID()) {
-                        case KEY_PRESSED:
-                            l.keyPressed(keyEvent);
-                            break;
-                        case KEY_RELEASED:
-                            l.keyReleased(keyEvent);
-                            break;
-                        case KEY_TYPED:
-                            l.keyTyped(keyEvent);
-                            break;
-                        default:
-                            // do nothing
-                    }
-                }
-            }
-
-            MouseEvent mouseEvent;
-
-            while ((mouseEvent = fetchEvent(mouseEvents)) != null) {
-                for (MouseListener l : mouseListener)  {
-                    switch (mouseEvent.getID()) {
-                        case MOUSE_PRESSED:
-                            l.mousePressed(mouseEvent);
-                            break;
-                        case MOUSE_RELEASED:
-                            l.mouseReleased(mouseEvent);
-                            break;
-                        case MOUSE_CLICKED:
-                            l.mouseClicked(mouseEvent);
-                            break;
-                        case MOUSE_ENTERED:
-                            l.mouseEntered(mouseEvent);
-                            break;
-                        case MOUSE_EXITED:
-                            l.mouseExited(mouseEvent);
-                            break;
-                        default:
-                            // do nothing
-                    }
-                }
-            }
-
-            // execute the game actions
-            gameRunning = updateGame();
-            triggerRendering();
-            paintScreen();
-
-            // time after game actions
-            long afterTime = System.nanoTime();
-
-            // time passed during game actions
-            long timeDiff = afterTime - beforeTime;
-
-            // sleep long enough to reach the desired delays between updates
-            long sleepDuration = (delay - timeDiff - sleepCorrection);
-
-            if (sleepDuration < 0) {
-                sleepCorrection = 0L;
-                excess -= sleepDuration;
-
-                if (++numberOfDelays >= NO_DELAYS_PER_YIELD) {
-                    Thread.yield();
-                    numberOfDelays = 0;
-                }
-            }
-            else {
-                try {
-                    Thread.sleep(sleepDuration
-                            / Constants.NANOSECONDS_PER_MILLISECOND);
-                }
-                catch (InterruptedException e) {
-                    break;
-                }
-
-                // sleep may be inaccurate, therefore, calculate sleep's skew
-                sleepCorrection = System.nanoTime() - afterTime - sleepDuration;
-            }
-
-            int skips = 0;
+    int getWorldX() {
+        return worldX;
+    }
 
-            // Rendering takes too much time, therefore, update the game without
-            // rendering the screen. The display will lack FPS but the game
-            // logic will proceed with the right speed
-            while ((excess > delay) && (skips < MAX_FRAME_SKIPS)) {
-                excess -= delay;
-                gameRunning = updateGame();
-                skips++;
-            }
+    /**
+     * Returns the y coordinate of the world drawn at the upper border of
+     * the board while the world is drawn.
+     *
+     * @return the y coordinate or 0 if the world is not drawn
+     */
+    int getWorldY() {
+        return worldY;
+    }
 
-            if (Constants.DEBUG_SHOW_FPS) {
-                if (System.nanoTime() - lastDebugUpdate > DEBUG_FREQUENCY) {
+    /**
+     * Draw into an image instead of the frame, e.g. into the image of a
+     * static layer. While drawing, the regions drawn are not tracked, the
+     * sprites drawn are not counted by the diagnostics and nothing is
+     * culled, because the image is not the frame.
+     *
+     * @param drawing draws into the image
+     */
+    void drawOffscreen(Runnable drawing) {
 
-                    fps = Constants.NANOSECONDS_PER_SECOND
-                            / (System.nanoTime() - beforeTime);
+        boolean tracking = trackingRegions;
+        boolean culled = culling;
+        trackingRegions = false;
+        culling = false;
+        diagnostics.setCountingSprites(false);
 
-                    lastDebugUpdate = System.nanoTime();
-                }
-            }
+        try {
+            drawing.run();
+        }
+        finally {
+            trackingRegions = tracking;
+            culling = culled;
+            diagnostics.setCountingSprites(true);
         }
-
-        // call one last time into subclass to allow rendering of
-        // game over information
-        triggerRendering();
-        paintScreen();
     }
 
     /**
-     * Fetch the pending events.
+     * Requests to draw and show the complete frame once, e.g. because the
+     * background changed. Can be called from any thread.
      *
-     * @param <T> the type of the event
-     * @param eventList the list of events
+     * @see Board#setDirtyRectangles(boolean)
+     */
+    public void markAllDirty() {
+        fullFrameRequested.set(true);
+    }
+
+    /**
+     * Sets the target the frames are drawn on. Used by runtimes that do not
+     * display the board in a window.
      *
-     * @return the event or {@code null} if no events are present
+     * @param renderTarget the target
+     * @throws IllegalStateException if the game is already running
      */
-    private <T> T fetchEvent(List<T> eventList) {
+    void setRenderTarget(RenderTarget renderTarget) {
 
-        if (!eventList.isEmpty()) {
-            T e = eventList.get(0);
-            eventList.remove(0);
-            return e;
+        if (thread != null) {
+            throw new IllegalStateException(
+                    "Render target cannot be changed while game is running");
         }
 
-        return null;
+        this.renderTarget = renderTarget;
     }
 
     /**
-     * @see java.awt.event.KeyListener#keyTyped(java.awt.event.KeyEvent)
+     * Returns the time between two frames.
+     *
+     * @return the delay in nano seconds
      */
-    @Override
-    public void keyTyped(KeyEvent e) {
-        keyEvents.add(e);
+    long getDelay() {
+        return delay;
     }
 
     /**
-     * @see java.awt.event.KeyListener#keyPressed(java.awt.event.KeyEvent)
+     * Returns the number of game updates executed so far. The counter is
+     * incremented before each call of {@link Board#updateGame()}.
+     *
+     * @return number of updates
      */
-    @Override
-    public void keyPressed(KeyEvent e) {
-        keyEvents.add(e);
+    public long getTicks() {
+        return ticks;
     }
 
     /**
-     * @see java.awt.event.KeyListener#keyReleased(java.awt.event.KeyEvent)
+     * Returns the state of keyboard and mouse. The state is updated before
+     * each call of {@link Board#updateGame()} and does not change during
+     * the update.
+     *
+     * @return the state
      */
-    @Override
-    public void keyReleased(KeyEvent e) {
-        keyEvents.add(e);
+    public InputState getInput() {
+        return input;
     }
 
     /**
-     * @see java.awt.event.MouseListener#mouseClicked(java.awt.event.MouseEvent)
+     * Returns the number of key and mouse events that were dropped because
+     * the game loop did not consume them fast enough.
+     *
+     * @return number of dropped events
      */
-    @Override
-    public void mouseClicked(MouseEvent e) {
-        mouseEvents.add(e);
+    public long getDroppedEvents() {
+        return keyEvents.getDropped() + mouseEvents.getDropped();
     }
 
     /**
-     * @see java.awt.event.MouseListener#mousePressed(java.awt.event.MouseEvent)
+     * Sets the clock the board and its game objects read the time from.
+     * The clock has to be set before the game is started.
+     *
+     * @param clock the clock to be used
+     * @throws IllegalStateException if the game is already running
      */
-    @Override
-    public void mousePressed(MouseEvent e) {
-        mouseEvents.add(e);
+    public void setClock(GameClock clock) {
+
+        if (thread != null) {
+            throw new IllegalStateException(
+                    "Clock cannot be changed while game is running");
+        }
+
+        this.clock = clock;
     }
 
     /**
-     * @see java.awt.event.MouseListener#mouseReleased(java.awt.event.MouseEvent)
+     * Returns the clock the board and its game objects read the time from.
+     *
+     * @return the clock
      */
-    @Override
-    public void mouseReleased(MouseEvent e) {
-        mouseEvents.add(e);
+    public GameClock getClock() {
+        return clock;
     }
 
     /**
-     * @see java.awt.event.MouseListener#mouseEntered(java.awt.event.MouseEvent)
+     * Returns the durations of the phases of the frames executed so far.
+     * The durations are always measured in real time, independent of the
+     * clock used by the board.
+     *
+     * @return the statistics
      */
-    @Override
-    public void mouseEntered(MouseEvent e) {
-        mouseEvents.add(e);
+    public FrameStatistics getFrameStatistics() {
+        return statistics;
     }
 
     /**
-     * @see java.awt.event.MouseListener#mouseExited(java.awt.event.MouseEvent)
+     * Returns the governor adapting the number of frame skips and the
+     * quality of the game to the speed of the machine.
+     *
+     * @return the governor
      */
-    @Override
-    public void mouseExited(MouseEvent e) {
-        mouseEvents.add(e);
+    public FrameGovernor getFrameGovernor() {
+        return governor;
+    }
+
+    /**
+     * Adds a layer to the board. The layer is drawn after the layers with
+     * a lower or the same z-order that were added before.
+     *
+     * @param layer the layer
+     * @throws IllegalArgumentException if the layer already belongs to a
+     *      board
+     */
+    public synchronized void addLayer(Layer layer) {
+
+        if (layer.getBoard() != null) {
+            throw new IllegalArgumentException(
+                    "Layer already belongs to a board");
+        }
+
+        Layer[] current = layers;
+        int index = 0;
+
+        while ((index < current.length)
+                && (current[index].getZOrder() <= layer.getZOrder())) {
+            index++;
+        }
+
+        Layer[] changed = new Layer[current.length + 1];
+        System.arraycopy(current, 0, changed, 0, index);
+        changed[index] = layer;
+        System.arraycopy(current, index, changed, index + 1,
+                current.length - index);
+
+        layers = changed;
+        layer.setBoard(this);
+    }
+
+    /**
+     * Removes a layer from the board.
+     *
+     * @param layer the layer
+     */
+    public synchronized void removeLayer(Layer layer) {
+
+        if (layer.getBoard() != this) {
+            return;
+        }
+
+        List<Layer> changed = new ArrayList<>(List.of(layers));
+        changed.remove(layer);
+
+        layers = changed.toArray(new Layer[0]);
+        layer.setBoard(null);
+        markAllDirty();
+    }
+
+    /**
+     * Returns the layers of the board ordered by their z-order.
+     *
+     * @return the layers
+     */
+    public List<Layer> getLayers() {
+        return List.of(layers);
+    }
+
+    /**
+     * Returns the camera defining the part of the world shown on the
+     * board.
+     *
+     * @return the camera
+     */
+    public Camera getCamera() {
+        return camera;
+    }
+
+    /**
+     * Returns the overlay showing diagnostic information on top of the
+     * game.
+     *
+     * @return the overlay
+     */
+    public DiagnosticsOverlay getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Called by the game thread before a frame is drawn if the quality
+     * the game should be drawn with changed, either because the frames
+     * took too long (see {@link FrameGovernor#setAdaptiveQuality(boolean)})
+     * or because it was set explicitly. The default implementation does
+     * nothing.
+     *
+     * @param quality the new quality
+     */
+    protected void qualityChanged(FrameGovernor.Quality quality) {
+        // do nothing
+    }
+
+    /**
+     * Stops the game.
+     */
+    public void stopGame() {
+        gameRunning = false;
+        wakeUp();
+    }
+
+    /**
+     * Sets what the game loop does while the board is suspended. The
+     * default is {@link SuspendPolicy#PAUSE}.
+     *
+     * @param suspendPolicy the policy
+     */
+    public void setSuspendPolicy(SuspendPolicy suspendPolicy) {
+        this.suspendPolicy = suspendPolicy;
+        wakeUp();
+    }
+
+    /**
+     * Returns what the game loop does while the board is suspended.
+     *
+     * @return the policy
+     */
+    public SuspendPolicy getSuspendPolicy() {
+        return suspendPolicy;
+    }
+
+    /**
+     * Suspends or resumes the board, e.g. to pause the game while a menu
+     * is shown. The board is also suspended while its {@link MainWindow}
+     * is iconified or hidden. What the game loop does while the board is
+     * suspended is defined by the {@link SuspendPolicy}. After the board
+     * is resumed, the game continues with the current time, i.e. the time
+     * passed while suspended is not caught up.
+     *
+     * @param suspended {@code true} to suspend the board
+     */
+    public void setSuspended(boolean suspended) {
+        this.suspendRequested = suspended;
+        wakeUp();
+    }
+
+    /**
+     * Indicates whether the board is suspended, either on request of the
+     * game or because its window is not shown.
+     *
+     * @return {@code true} if the board is suspended
+     */
+    public boolean isSuspended() {
+        return suspendRequested || windowHidden
+                || (windowInactive && suspendWhenInactive);
+    }
+
+    /**
+     * Switches the suspension of the board while its window does not have
+     * the focus on or off. By default, the board is only suspended if the
+     * window is iconified or hidden.
+     *
+     * @param suspendWhenInactive {@code true} to suspend the board while
+     *                            the window does not have the focus
+     */
+    public void setSuspendWhenInactive(boolean suspendWhenInactive) {
+        this.suspendWhenInactive = suspendWhenInactive;
+        wakeUp();
+    }
+
+    /**
+     * Indicates whether the board is suspended while its window does not
+     * have the focus.
+     *
+     * @return {@code true} if suspended without focus
+     */
+    public boolean isSuspendWhenInactive() {
+        return suspendWhenInactive;
+    }
+
+    /**
+     * Called by the window of the board if it is iconified, hidden or
+     * shown again.
+     *
+     * @param hidden {@code true} if the window is not shown
+     */
+    void setWindowHidden(boolean hidden) {
+        windowHidden = hidden;
+        wakeUp();
+    }
+
+    /**
+     * Called by the window of the board if it gains or loses the focus.
+     *
+     * @param inactive {@code true} if the window lost the focus
+     */
+    void setWindowInactive(boolean inactive) {
+        windowInactive = inactive;
+        wakeUp();
+    }
+
+    /**
+     * Indicates whether the game is still running.
+     *
+     * @return {@code true} if the game is running, {@code false} if the
+     *      game is over
+     */
+    public boolean isRunning() {
+        return gameRunning;
+    }
+
+    /**
+     * The game loop for the game logic. This method will be called
+     * periodically be the framework to execute the game. All game
+     * actions must be triggered from this loop.
+     *
+     * @return true if the game should continue, otherwise false
+     */
+    public abstract boolean updateGame();
+
+    /**
+     * The graphics output of the game. This method is called
+     * periodically by the framework to draw the game graphics.
+     *
+     * @param g Graphics context.
+     */
+    public abstract void drawGame(Graphics g);
+
+    /**
+     * The graphics output of the game with interpolation. This method is
+     * called periodically by the framework to draw the game graphics.
+     * <p>
+     * The parameter {@code alpha} indicates the fraction of the time
+     * between the last and the next update that has already passed. In the
+     * {@link LoopMode#FIXED_TIMESTEP} mode, the rendering happens between
+     * two updates and the game objects can be drawn at interpolated
+     * positions, e.g. using {@link
+     * de.smits_net.games.framework.sprite.Sprite#draw(Graphics,
+     * java.awt.image.ImageObserver, double)}. In the
+     * {@link LoopMode#VARIABLE_TIMESTEP} mode, {@code alpha} is always 1.
+     * <p>
+     * The default implementation ignores the interpolation and calls
+     * {@link Board#drawGame(Graphics)}.
+     *
+     * @param g Graphics context.
+     * @param alpha interpolation factor between 0 and 1
+     */
+    public void drawGame(Graphics g, double alpha) {
+        drawGame(g);
+    }
+
+    @Override
+    public final synchronized void addKeyListener(KeyListener l) {
+        keyListener.add(l);
+    }
+
+    @Override
+    public final synchronized void addMouseListener(MouseListener l) {
+        mouseListener.add(l);
+    }
+
+    /**
+     * Prepare the graphics context and then call the render methods. In the
+     * pipelined mode, the frame is only recorded.
+     *
+     * @param alpha interpolation factor passed to the drawing method
+     */
+    private void triggerRendering(double alpha) {
+
+        long beforeRendering = System.nanoTime();
+
+        if (pipeline != null) {
+            render(pipeline.beginFrame(), alpha);
+        }
+        else {
+            drawFrame(null, alpha);
+        }
+
+        statistics.add(Phase.RENDER, System.nanoTime() - beforeRendering);
+    }
+
+    /**
+     * Draw a frame onto the render target.
+     *
+     * @param frame recorded frame to be drawn or {@code null} to call the
+     *              render methods
+     * @param alpha interpolation factor passed to the drawing method
+     */
+    private void drawFrame(RenderList frame, double alpha) {
+
+        RenderEvent event = new RenderEvent();
+        event.begin();
+
+        trackingRegions = dirtyRectangles && (frame == null);
+
+        // a partial frame requires the regions drawn in the last frame
+        boolean partialPossible = trackingRegions
+                && !fullFrameRequested.getAndSet(false)
+                && gameRunning;
+
+        if (partialPossible) {
+            previousRegions.merge();
+            partialPossible = !previousRegions.isAll();
+        }
+
+        boolean partial;
+        boolean complete;
+
+        do {
+            Graphics g = renderTarget.beginRendering();
+
+            if (g == null) {
+                trackingRegions = false;
+                return;
+            }
+
+            drawnRegions.clear();
+            partial = partialPossible && renderTarget.isContentPreserved();
+
+            if (frame != null) {
+                frame.replay(g);
+            }
+            else if (partial) {
+                renderDirty(g, alpha);
+            }
+            else {
+                render(g, alpha);
+            }
+
+            complete = renderTarget.finishRendering(g);
+
+            // if the content was lost, everything has to be drawn again
+            partialPossible = false;
+        } while (!complete);
+
+        shownRegions = null;
+
+        if (trackingRegions) {
+            trackingRegions = false;
+
+            // the regions of the last frame were restored and the regions
+            // of this frame were drawn, both have to be shown
+            if (partial) {
+                previousRegions.addAll(drawnRegions);
+                previousRegions.merge();
+
+                if (!previousRegions.isAll()) {
+                    shownRegions = previousRegions.getRegions();
+                }
+            }
+
+            DirtyRegions drawn = drawnRegions;
+            drawnRegions = previousRegions;
+            previousRegions = drawn;
+        }
+
+        event.commit();
+    }
+
+    /**
+     * Call the render methods for the regions that changed. The background
+     * is restored from the copy taken with the last complete frame where
+     * something was drawn in the last frame, then the game is drawn
+     * completely.
+     *
+     * @param g the graphics context to draw into
+     * @param alpha interpolation factor passed to the drawing method
+     */
+    private void renderDirty(Graphics g, double alpha) {
+
+        // restore the background
+        for (Rectangle r : previousRegions.getRegions()) {
+            int x2 = r.x + r.width;
+            int y2 = r.y + r.height;
+            g.drawImage(backgroundCache, r.x, r.y, x2, y2,
+                    r.x, r.y, x2, y2, null);
+        }
+
+        // Draw game, the sprites report the regions they cover
+        renderWorld(g, alpha);
+
+        drawDebugInfo(g);
+    }
+
+    /**
+     * Draw a recorded frame and bring it to the screen. Called by the
+     * render thread in the pipelined mode.
+     *
+     * @param frame the recorded frame
+     */
+    private void presentFrame(RenderList frame) {
+        drawFrame(frame, 1.0);
+        showFrame();
+    }
+
+    /**
+     * Call the render methods.
+     *
+     * @param g the graphics context to draw into
+     * @param alpha interpolation factor passed to the drawing method
+     */
+    private void render(Graphics g, double alpha) {
+
+        if (trackingRegions) {
+
+            // keep a copy of the background to restore the dirty regions
+            // in the next frames
+            if (backgroundCache == null) {
+                backgroundCache = new BufferedImage(dimension.width,
+                        dimension.height, BufferedImage.TYPE_INT_RGB);
+            }
+
+            Graphics cache = backgroundCache.getGraphics();
+            renderBackground(cache, alpha);
+            cache.dispose();
+
+            g.drawImage(backgroundCache, 0, 0, null);
+        }
+        else {
+            renderBackground(g, alpha);
+        }
+
+        // Draw game
+        if (gameRunning) {
+            renderWorld(g, alpha);
+        }
+        else {
+            drawGameOver(g);
+        }
+
+        drawDebugInfo(g);
+    }
+
+    /**
+     * Clear the background, let the subclass draw its background and draw
+     * the background layers. Nothing is drawn below the topmost opaque
+     * layer.
+     *
+     * @param g the graphics context
+     * @param alpha interpolation factor passed to the layers
+     */
+    private void renderBackground(Graphics g, double alpha) {
+
+        Layer[] current = layers;
+        int first = 0;
+
+        // everything below an opaque layer is hidden anyway
+        for (int i = 0; (i < current.length)
+                && (current[i].getZOrder() < 0); i++) {
+            if (current[i].isOpaque()) {
+                first = i + 1;
+            }
+        }
+
+        if (first == 0) {
+            g.setColor(backgroundColor);
+            g.fillRect(0, 0, dimension.width, dimension.height);
+            drawBackground(g);
+        }
+        else {
+            first--;
+        }
+
+        for (int i = first; (i < current.length)
+                && (current[i].getZOrder() < 0); i++) {
+            current[i].draw(g, alpha);
+        }
+    }
+
+    /**
+     * Draw the game and the layers in front of the background in world
+     * coordinates.
+     *
+     * @param g the graphics context
+     * @param alpha interpolation factor passed to the game and the layers
+     */
+    private void renderWorld(Graphics g, double alpha) {
+
+        worldX = camera.getX();
+        worldY = camera.getY();
+        g.translate(-worldX, -worldY);
+        culling = true;
+
+        try {
+            drawGame(g, alpha);
+
+            for (Layer layer : layers) {
+                if (layer.getZOrder() >= 0) {
+                    layer.draw(g, alpha);
+                }
+            }
+        }
+        finally {
+            g.translate(worldX, worldY);
+            worldX = 0;
+            worldY = 0;
+            culling = false;
+        }
+    }
+
+    /**
+     * Draw the FPS counter if debugging is on and the diagnostics overlay
+     * if it is shown.
+     *
+     * @param g the graphics context
+     */
+    private void drawDebugInfo(Graphics g) {
+        if (Constants.DEBUG_SHOW_FPS) {
+            g.setColor(Color.RED);
+            drawText(g, 0, dimension.height - 5, fpsText);
+        }
+
+        if (diagnostics.isVisible()) {
+            Rectangle r = diagnostics.draw(g);
+            markDirty(r.x, r.y, r.width, r.height);
+        }
+    }
+
+    /**
+     * Draw a text and report the region it covers. Texts are positioned in
+     * the coordinates of the board, even while the world is drawn.
+     *
+     * @param g the graphics context
+     * @param x x position of the text
+     * @param y y position of the base line of the text
+     * @param msg the text
+     */
+    private void drawText(Graphics g, int x, int y, String msg) {
+
+        Font font = g.getFont();
+
+        if (font == null) {
+            // no font to render the text with, let the context choose one
+            g.drawString(msg, x + worldX, y + worldY);
+            return;
+        }
+
+        BufferedImage image = textCache.getImage(msg, font, g.getColor());
+        int left = x + worldX;
+        int top = y + worldY - textCache.getMetrics(font).getAscent();
+
+        g.drawImage(image, left, top, null);
+        markDirty(left, top, image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Paints the screen. In the pipelined mode, the recorded frame is
+     * handed over to the render thread.
+     */
+    private void paintScreen() {
+
+        long beforePaint = System.nanoTime();
+
+        if (pipeline != null) {
+            try {
+                pipeline.submitFrame();
+            }
+            catch (InterruptedException e) {
+                // the game loop terminates with the next frame
+                Thread.currentThread().interrupt();
+            }
+        }
+        else {
+            showFrame();
+        }
+
+        statistics.add(Phase.PAINT, System.nanoTime() - beforePaint);
+    }
+
+    /**
+     * Bring the last frame drawn to the screen.
+     */
+    private void showFrame() {
+
+        BlitEvent event = new BlitEvent();
+        event.begin();
+
+        try {
+            if (shownRegions != null) {
+                renderTarget.show(shownRegions);
+            }
+            else {
+                renderTarget.show();
+            }
+        }
+        catch (Exception e) {
+            System.err.println("Graphics error: " + e);
+        }
+
+        event.commit();
+    }
+
+    /**
+     * Draw a text centered on the screen.
+     *
+     * @param g the graphics context
+     * @param msg the message to be shown
+     */
+    protected final void centerText(Graphics g, String msg) {
+        FontMetrics fm = textCache.getMetrics(CENTER_FONT);
+
+        g.setColor(Color.white);
+        g.setFont(CENTER_FONT);
+        drawText(g, (dimension.width - fm.stringWidth(msg)) / 2,
+                dimension.height / 2, msg);
+    }
+
+    /**
+     * Writes a text at the given position.
+     *
+     * @param g graphics context
+     * @param x x position of the text
+     * @param y y position of the text
+     * @param msg the message to be drawn
+     */
+    protected final void writeText(Graphics g, int x, int y, String msg) {
+        g.setColor(Color.WHITE);
+        drawText(g, x, y, msg);
+    }
+
+    /**
+     * Draw game over message.
+     *
+     * @param g the graphics context
+     */
+    protected void drawGameOver(Graphics g) {
+        // do nothing
+    }
+
+    /**
+     * Draw the background. The default implementation clears the
+     * background with the current background color.
+     *
+     * @param g the graphics context
+     */
+    protected void drawBackground(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, dimension.width, dimension.height);
+    }
+
+    /**
+     * @see javax.swing.JComponent#paintComponent(Graphics)
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+
+        // the screen has been cleared, e.g. because the window was
+        // covered, only showing the changed regions is not enough
+        markAllDirty();
+    }
+
+    /**
+     * @see javax.swing.JComponent#addNotify()
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+
+        thread = new Thread(this);
+        thread.start();
+    }
+
+    /**
+     * @see java.lang.Runnable#run()
+     */
+    @Override
+    public final void run() {
+
+        if (pipelined) {
+            pipeline = new RenderPipeline(this, this::presentFrame);
+            pipeline.start();
+        }
+
+        if (loopMode == LoopMode.FIXED_TIMESTEP) {
+            runFixedTimestep();
+        }
+        else {
+            runVariableTimestep();
+        }
+
+        finishGame();
+    }
+
+    /**
+     * Execute one frame of the game, i.e. update the game and draw it,
+     * without waiting.
+     */
+    void runFrame() {
+        FrameEvent frameEvent = new FrameEvent();
+        frameEvent.begin();
+
+        long beforeTime = System.nanoTime();
+
+        if (isSuspended() && (suspendPolicy == SuspendPolicy.PAUSE)) {
+            // the frames of a paused game are executed later
+            return;
+        }
+
+        tick();
+
+        if (isRendering()) {
+            triggerRendering(1.0);
+            paintScreen();
+        }
+
+        governFrame(1L);
+        endFrame(System.nanoTime() - beforeTime);
+
+        // no waiting, but simulated clocks have to advance
+        clock.skip(delay);
+
+        frameEvent.tick = ticks;
+        frameEvent.commit();
+    }
+
+    /**
+     * Draw the last frame after the game is over.
+     */
+    void finishGame() {
+        // call one last time into subclass to allow rendering of
+        // game over information
+        triggerRendering(1.0);
+        paintScreen();
+
+        if (pipeline != null) {
+            pipeline.stop();
+            pipeline = null;
+        }
+    }
+
+    /**
+     * Game loop that updates the game once per frame. If rendering is too
+     * slow, additional updates are executed without rendering to keep the
+     * speed of the game logic.
+     */
+    private void runVariableTimestep() {
+
+        // Time we slipped over the expected FPS
+        long excess = 0L;
+
+        // Time the next frame is due. Waiting for a deadline instead of
+        // a duration prevents the inaccuracies of the sleep from adding up
+        long nextFrame = clock.nanoTime() + delay;
+
+        // The approach used here is taken from the book
+        // Killer Game Programming in Java by Andrew Davison
+        // O’Reilly Media, 2005
+        while (gameRunning && !Thread.currentThread().isInterrupted()) {
+
+            try {
+                if (awaitResume()) {
+                    // do not catch up the time the game was paused
+                    excess = 0L;
+                    nextFrame = clock.nanoTime() + delay;
+                }
+            }
+            catch (InterruptedException e) {
+                break;
+            }
+
+            FrameEvent frameEvent = new FrameEvent();
+            frameEvent.begin();
+
+            // The costs of the phases are always measured in real time,
+            // the pacing uses the time of the clock.
+            long frameStart = System.nanoTime();
+
+            // time before game actions
+            long beforeTime = clock.nanoTime();
+            long ticksBefore = ticks;
+
+            // execute the game actions
+            tick();
+
+            if (isRendering()) {
+                triggerRendering(1.0);
+                paintScreen();
+            }
+
+            // time after game actions
+            long afterTime = clock.nanoTime();
+            long beforeSleep = System.nanoTime();
+
+            // sleep until the next frame is due
+            long sleepDuration = nextFrame - afterTime;
+
+            if (sleepDuration < 0) {
+
+                // the frame is late, the next one is due one delay from now
+                excess -= sleepDuration;
+                nextFrame = afterTime + delay;
+
+                // running without sleep for too long starves other threads
+                if (governor.frameLate(beforeSleep - frameStart)) {
+                    Thread.yield();
+                }
+            }
+            else {
+                governor.frameOnTime();
+
+                try {
+                    clock.sleep(sleepDuration);
+                }
+                catch (InterruptedException e) {
+                    break;
+                }
+
+                nextFrame += delay;
+            }
+
+            long afterSleep = System.nanoTime();
+            statistics.add(Phase.SLEEP, afterSleep - beforeSleep);
+
+            int skips = 0;
+            int maxSkips = governor.getMaxFrameSkips();
+
+            // Rendering takes too much time, therefore, update the game without
+            // rendering the screen. The display will lack FPS but the game
+            // logic will proceed with the right speed
+            SkippedFramesEvent skippedEvent = new SkippedFramesEvent();
+            skippedEvent.begin();
+
+            while ((excess > delay) && (skips < maxSkips)) {
+                excess -= delay;
+                tick();
+                skips++;
+            }
+
+            if (skips > 0) {
+                skippedEvent.skipped = skips;
+                skippedEvent.commit();
+            }
+
+            long afterCatchUp = System.nanoTime();
+            statistics.add(Phase.CATCH_UP, afterCatchUp - afterSleep);
+            governFrame(ticks - ticksBefore);
+            endFrame(afterCatchUp - frameStart);
+
+            frameEvent.tick = ticks;
+            frameEvent.commit();
+
+            updateDebugInfo(beforeTime);
+        }
+    }
+
+    /**
+     * Game loop that decouples the game logic from the rendering. The game
+     * is updated with the fixed rate given by the delay of the board while
+     * rendering happens with the refresh rate (see
+     * {@link Board#getRefreshRate()}). Rendering more often would only
+     * burn CPU time for frames never shown. Because the rendering usually
+     * happens between two updates, the fraction of time passed since the
+     * last update is handed to {@link Board#drawGame(Graphics, double)}
+     * to allow interpolation of the positions.
+     */
+    private void runFixedTimestep() {
+
+        // Simulated time that has not been consumed by updates yet
+        long accumulator = 0L;
+
+        long previousTime = clock.nanoTime();
+
+        // Time the next frame is rendered
+        long nextRender = previousTime;
+
+        // the display is not changed while the game runs
+        int displayRate = displayRefreshRate();
+
+        // The approach used here is described in the article
+        // Fix Your Timestep! by Glenn Fiedler, 2004
+        while (gameRunning && !Thread.currentThread().isInterrupted()) {
+
+            try {
+                if (awaitResume()) {
+                    // do not catch up the time the game was paused
+                    accumulator = 0L;
+                    previousTime = clock.nanoTime();
+                    nextRender = previousTime;
+                }
+            }
+            catch (InterruptedException e) {
+                break;
+            }
+
+            FrameEvent frameEvent = new FrameEvent();
+            frameEvent.begin();
+
+            long frameStart = System.nanoTime();
+            long beforeTime = clock.nanoTime();
+            long frameTime = beforeTime - previousTime;
+            long ticksBefore = ticks;
+            previousTime = beforeTime;
+
+            // If the updates are slower than real time, the accumulator
+            // would grow forever. Limit the number of updates per frame,
+            // the game will slow down in this case. The remainder of the
+            // last frame is kept, otherwise every frame waiting a full
+            // delay would lose the time it overslept.
+            accumulator = Math.min(accumulator + frameTime,
+                    delay * (governor.getMaxFrameSkips() + 1) - 1);
+
+            while ((accumulator >= delay) && gameRunning) {
+                tick();
+                accumulator -= delay;
+            }
+
+            boolean rendering = isRendering();
+
+            if (rendering && (beforeTime - nextRender >= 0)) {
+                triggerRendering((double) accumulator / delay);
+                paintScreen();
+
+                int rate = refreshRate;
+                nextRender += Constants.NANOSECONDS_PER_SECOND
+                        / ((rate > 0) ? rate : displayRate);
+
+                // frames missed are not rendered later
+                if (nextRender - beforeTime < 0) {
+                    nextRender = beforeTime;
+                }
+            }
+
+            // wait until the next update or the next frame is due
+            long now = clock.nanoTime();
+            long sleepDuration = delay - accumulator - (now - beforeTime);
+
+            if (rendering) {
+                sleepDuration = Math.min(sleepDuration, nextRender - now);
+            }
+
+            long beforeSleep = System.nanoTime();
+
+            try {
+                clock.sleep(sleepDuration);
+            }
+            catch (InterruptedException e) {
+                break;
+            }
+
+            long afterSleep = System.nanoTime();
+            statistics.add(Phase.SLEEP, afterSleep - beforeSleep);
+            governFrame(ticks - ticksBefore);
+            endFrame(afterSleep - frameStart);
+
+            frameEvent.tick = ticks;
+            frameEvent.commit();
+
+            updateDebugInfo(beforeTime);
+        }
+    }
+
+    /**
+     * Indicates whether the current frame has to be drawn.
+     *
+     * @return {@code false} if suspended without rendering
+     */
+    private boolean isRendering() {
+        return !isSuspended()
+                || (suspendPolicy != SuspendPolicy.UPDATE_ONLY);
+    }
+
+    /**
+     * Waits while the board is suspended with the policy
+     * {@link SuspendPolicy#PAUSE}. After the board was resumed, the next
+     * frame is drawn completely.
+     *
+     * @return {@code true} if the game loop waited
+     * @throws InterruptedException if the game thread was interrupted
+     */
+    private boolean awaitResume() throws InterruptedException {
+
+        if (!isSuspended()) {
+            if (wasSuspended) {
+                // the screen may show anything after the suspension
+                wasSuspended = false;
+                markAllDirty();
+            }
+
+            return false;
+        }
+
+        wasSuspended = true;
+        boolean paused = false;
+
+        suspendLock.lock();
+
+        try {
+            while (isSuspended() && gameRunning
+                    && (suspendPolicy == SuspendPolicy.PAUSE)) {
+                paused = true;
+                resumed.await();
+            }
+        }
+        finally {
+            suspendLock.unlock();
+        }
+
+        return paused;
+    }
+
+    /**
+     * Wake up the game loop waiting while the board is paused.
+     */
+    private void wakeUp() {
+
+        suspendLock.lock();
+
+        try {
+            resumed.signalAll();
+        }
+        finally {
+            suspendLock.unlock();
+        }
+    }
+
+    /**
+     * Pass the costs of the current frame to the governor and notify the
+     * subclass if the quality changed.
+     *
+     * @param updates number of updates executed in the frame
+     */
+    private void governFrame(long updates) {
+
+        long updateTime = statistics.getCurrent(Phase.EVENTS)
+                + statistics.getCurrent(Phase.UPDATE);
+        long renderTime = statistics.getCurrent(Phase.RENDER)
+                + statistics.getCurrent(Phase.PAINT);
+
+        if (governor.frameFinished(updateTime, updates, renderTime)) {
+            qualityChanged(governor.getQuality());
+        }
+    }
+
+    /**
+     * Dispatch the pending events and update the game once.
+     */
+    private void tick() {
+        UpdateEvent event = new UpdateEvent();
+        event.begin();
+
+        long beforeEvents = System.nanoTime();
+        dispatchEvents();
+
+        long beforeUpdate = System.nanoTime();
+        ticks++;
+
+        // only clear the flag, it may have been cleared by stopGame()
+        // from another thread in the meantime
+        if (!updateGame()) {
+            gameRunning = false;
+        }
+
+        long afterUpdate = System.nanoTime();
+        statistics.add(Phase.EVENTS, beforeUpdate - beforeEvents);
+        statistics.add(Phase.UPDATE, afterUpdate - beforeUpdate);
+
+        event.tick = ticks;
+        event.commit();
+    }
+
+    /**
+     * Finish the statistics of the current frame.
+     *
+     * @param frameNanos duration of the complete frame in nano seconds
+     */
+    private void endFrame(long frameNanos) {
+
+        if (diagnostics.isVisible()) {
+            diagnostics.frameFinished(statistics, frameNanos);
+        }
+
+        statistics.endFrame(frameNanos);
+    }
+
+    /**
+     * Update the FPS counter shown if debugging is on.
+     *
+     * @param beforeTime timestamp of the start of the current frame
+     */
+    private void updateDebugInfo(long beforeTime) {
+        if (Constants.DEBUG_SHOW_FPS) {
+            long now = clock.nanoTime();
+
+            if (now - lastDebugUpdate > DEBUG_FREQUENCY) {
+
+                fps = Constants.NANOSECONDS_PER_SECOND
+                        / Math.max(1L, now - beforeTime);
+
+                fpsText = "FPS: " + fps;
+                lastDebugUpdate = now;
+            }
+        }
+    }
+
+    /**
+     * Dispatch the events captured from the AWT thread to the registered
+     * listeners.
+     */
+    private void dispatchEvents() {
+
+        // The listeners will be called by the AWT thread with the
+        // consequence that events occur in parallel to the game
+        // loop. This requires some synchronization because otherwise
+        // strange ConcurrentModificationExceptions or other thread
+        // issues will occur. To avoid this, I gobble all the events
+        // with this class and then dispatch them synchronously to
+        // the other game elements here.
+        input.beginTick();
+        keyEvents.drain(keyDispatcher);
+        mouseEvents.drain(mouseDispatcher);
+
+        // the buffered events may be older than the last movement
+        long position = mousePosition;
+
+        if (position != NO_MOUSE_POSITION) {
+            input.mouseMoved((int) (position >> 32), (int) position);
+        }
+    }
+
+    /**
+     * Dispatch a key event to the registered listeners.
+     *
+     * @param keyEvent the event
+     */
+    private void dispatchKeyEvent(KeyEvent keyEvent) {
+
+        if (keyEvent.getKeyCode() == diagnostics.getToggleKey()
+                && (keyEvent.getKeyCode() != KeyEvent.VK_UNDEFINED)) {
+
+            // the toggle key is not seen by the game
+            if (keyEvent.getID() == KEY_PRESSED) {
+                diagnostics.toggle();
+            }
+
+            return;
+        }
+
+        input.keyEvent(keyEvent);
+
+        for (KeyListener l : keyListener)  {
+            switch (keyEvent.getID()) {
+                case KEY_PRESSED:
+                    l.keyPressed(keyEvent);
+                    break;
+                case KEY_RELEASED:
+                    l.keyReleased(keyEvent);
+                    break;
+                case KEY_TYPED:
+                    l.keyTyped(keyEvent);
+                    break;
+                default:
+                    // do nothing
+            }
+        }
+    }
+
+    /**
+     * Dispatch a mouse event to the registered listeners.
+     *
+     * @param mouseEvent the event
+     */
+    private void dispatchMouseEvent(MouseEvent mouseEvent) {
+
+        input.mouseEvent(mouseEvent);
+
+        for (MouseListener l : mouseListener)  {
+            switch (mouseEvent.getID()) {
+                case MOUSE_PRESSED:
+                    l.mousePressed(mouseEvent);
+                    break;
+                case MOUSE_RELEASED:
+                    l.mouseReleased(mouseEvent);
+                    break;
+                case MOUSE_CLICKED:
+                    l.mouseClicked(mouseEvent);
+                    break;
+                case MOUSE_ENTERED:
+                    l.mouseEntered(mouseEvent);
+                    break;
+                case MOUSE_EXITED:
+                    l.mouseExited(mouseEvent);
+                    break;
+                default:
+                    // do nothing
+            }
+        }
+    }
+
+    /**
+     * Remember the position of a mouse event as the latest position.
+     *
+     * @param e the event
+     */
+    private void trackMouse(MouseEvent e) {
+        mousePosition = ((long) e.getX() << 32) | (e.getY() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @see java.awt.event.KeyListener#keyTyped(java.awt.event.KeyEvent)
+     */
+    @Override
+    public void keyTyped(KeyEvent e) {
+        keyEvents.offer(e);
+    }
+
+    /**
+     * @see java.awt.event.KeyListener#keyPressed(java.awt.event.KeyEvent)
+     */
+    @Override
+    public void keyPressed(KeyEvent e) {
+        keyEvents.offer(e);
+    }
+
+    /**
+     * @see java.awt.event.KeyListener#keyReleased(java.awt.event.KeyEvent)
+     */
+    @Override
+    public void keyReleased(KeyEvent e) {
+        keyEvents.offer(e);
+    }
+
+    /**
+     * @see java.awt.event.MouseListener#mouseClicked(java.awt.event.MouseEvent)
+     */
+    @Override
+    public void mouseClicked(MouseEvent e) {
+        mouseEvents.offer(e);
+        trackMouse(e);
+    }
+
+    /**
+     * @see java.awt.event.MouseListener#mousePressed(java.awt.event.MouseEvent)
+     */
+    @Override
+    public void mousePressed(MouseEvent e) {
+        mouseEvents.offer(e);
+        trackMouse(e);
+    }
+
+    /**
+     * @see java.awt.event.MouseListener#mouseReleased(java.awt.event.MouseEvent)
+     */
+    @Override
+    public void mouseReleased(MouseEvent e) {
+        mouseEvents.offer(e);
+        trackMouse(e);
+    }
+
+    /**
+     * @see java.awt.event.MouseListener#mouseEntered(java.awt.event.MouseEvent)
+     */
+    @Override
+    public void mouseEntered(MouseEvent e) {
+        mouseEvents.offer(e);
+        trackMouse(e);
+    }
+
+    /**
+     * @see java.awt.event.MouseListener#mouseExited(java.awt.event.MouseEvent)
+     */
+    @Override
+    public void mouseExited(MouseEvent e) {
+        mouseEvents.offer(e);
+        trackMouse(e);
+    }
+
+    /**
+     * @see java.awt.event.MouseMotionListener#mouseMoved(java.awt.event.MouseEvent)
+     */
+    @Override
+    public void mouseMoved(MouseEvent e) {
+        trackMouse(e);
+    }
+
+    /**
+     * @see java.awt.event.MouseMotionListener#mouseDragged(java.awt.event.MouseEvent)
+     */
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        trackMouse(e);
     }
 }
@@ -0,0 +1,90 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.awt.BorderLayout;
+import java.awt.Canvas;
+import java.awt.Graphics;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+
+/**
+ * Render target using the {@link BufferStrategy} of a {@link Canvas}
+ * embedded into the board. Depending on the capabilities of the
+ * graphics device, the strategy uses page flipping or copies accelerated
+ * back buffers to the screen.
+ * <p>
+ * Because the canvas covers the complete board, it also takes over the
+ * keyboard focus and forwards all events to the board.
+ */
+class BufferStrategyRenderTarget implements RenderTarget {
+
+    /** Number of buffers used by the strategy. */
+    private static final int NUMBER_OF_BUFFERS = 2;
+
+    /** The canvas providing the buffer strategy. */
+    private final Canvas canvas;
+
+    /** The buffer strategy, created as soon as the canvas is displayed. */
+    private BufferStrategy strategy;
+
+    /**
+     * Create a new target and embed the canvas into the board.
+     *
+     * @param board the board we are rendering for
+     */
+    BufferStrategyRenderTarget(Board board) {
+        canvas = new Canvas();
+        canvas.setPreferredSize(board.getDimension());
+        canvas.setIgnoreRepaint(true);
+        canvas.setFocusable(true);
+        canvas.addKeyListener(board);
+        canvas.addMouseListener(board);
+        canvas.addMouseMotionListener(board);
+
+        board.setFocusable(false);
+        board.setLayout(new BorderLayout());
+        board.add(canvas, BorderLayout.CENTER);
+    }
+
+    /**
+     * @see RenderTarget#beginRendering()
+     */
+    @Override
+    public Graphics beginRendering() {
+
+        if (strategy == null) {
+            if (!canvas.isDisplayable()) {
+                return null;
+            }
+
+            canvas.createBufferStrategy(NUMBER_OF_BUFFERS);
+            strategy = canvas.getBufferStrategy();
+        }
+
+        return strategy.getDrawGraphics();
+    }
+
+    /**
+     * @see RenderTarget#finishRendering(Graphics)
+     */
+    @Override
+    public boolean finishRendering(Graphics g) {
+        g.dispose();
+
+        // if the buffer was restored while we were drawing,
+        // the frame has to be drawn again
+        return !strategy.contentsRestored();
+    }
+
+    /**
+     * @see RenderTarget#show()
+     */
+    @Override
+    public void show() {
+        if ((strategy != null) && !strategy.contentsLost()) {
+            strategy.show();
+        }
+
+        Toolkit.getDefaultToolkit().sync();
+    }
+}
@@ -0,0 +1,195 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+
+/**
+ * The part of the game world shown by a {@link Board}. The world can be
+ * larger than the board; the camera defines which position of the world
+ * is shown in the upper left corner of the board.
+ * <p>
+ * While {@link Board#drawGame(java.awt.Graphics, double)} and the layers
+ * in front of the background are drawn, the graphics context is
+ * translated, so the game objects are drawn with their world coordinates.
+ * The background and the texts of the board are drawn in the coordinates
+ * of the board. Sprites outside the viewport are culled while the world
+ * is drawn, i.e. they are not drawn at all (see
+ * {@link Board#isCulled(int, int, int, int)}).
+ * <p>
+ * As long as the camera is not moved, world and board coordinates are the
+ * same. The camera is used by the game thread.
+ */
+public class Camera {
+
+    /** The board the camera belongs to. */
+    private final Board board;
+
+    /** x coordinate of the upper left corner of the viewport. */
+    private double x;
+
+    /** y coordinate of the upper left corner of the viewport. */
+    private double y;
+
+    /** Area the viewport must not leave, {@code null} if unlimited. */
+    private Rectangle worldBounds;
+
+    /**
+     * Create a new camera showing the origin of the world.
+     *
+     * @param board the board the camera belongs to
+     */
+    Camera(Board board) {
+        this.board = board;
+    }
+
+    /**
+     * Returns the x coordinate of the world shown at the left border of
+     * the board.
+     *
+     * @return the x coordinate
+     */
+    public int getX() {
+        return (int) Math.floor(x);
+    }
+
+    /**
+     * Returns the y coordinate of the world shown at the upper border of
+     * the board.
+     *
+     * @return the y coordinate
+     */
+    public int getY() {
+        return (int) Math.floor(y);
+    }
+
+    /**
+     * Moves the viewport to the given position.
+     *
+     * @param x x coordinate of the world shown at the left border
+     * @param y y coordinate of the world shown at the upper border
+     */
+    public void setPosition(double x, double y) {
+
+        int oldX = getX();
+        int oldY = getY();
+
+        this.x = x;
+        this.y = y;
+        clamp();
+
+        if ((getX() != oldX) || (getY() != oldY)) {
+            // every pixel of the game moves
+            board.markAllDirty();
+        }
+    }
+
+    /**
+     * Moves the viewport by the given distance.
+     *
+     * @param dx distance in x direction
+     * @param dy distance in y direction
+     */
+    public void move(double dx, double dy) {
+        setPosition(x + dx, y + dy);
+    }
+
+    /**
+     * Moves the viewport so that the given position of the world is in the
+     * center of the board.
+     *
+     * @param worldX x coordinate in the world
+     * @param worldY y coordinate in the world
+     */
+    public void centerOn(double worldX, double worldY) {
+        setPosition(worldX - board.getWidth() / 2.0,
+                worldY - board.getHeight() / 2.0);
+    }
+
+    /**
+     * Limits the viewport to the given area of the world. If the area is
+     * smaller than the board, the viewport stays at the upper left corner
+     * of the area.
+     *
+     * @param worldBounds the area or {@code null} for an unlimited world
+     */
+    public void setWorldBounds(Rectangle worldBounds) {
+        this.worldBounds = (worldBounds == null) ? null
+                : new Rectangle(worldBounds);
+        setPosition(x, y);
+    }
+
+    /**
+     * Returns the area the viewport must not leave.
+     *
+     * @return the area or {@code null} if unlimited
+     */
+    public Rectangle getWorldBounds() {
+        return (worldBounds == null) ? null : new Rectangle(worldBounds);
+    }
+
+    /**
+     * Returns the part of the world shown on the board.
+     *
+     * @return the viewport in world coordinates
+     */
+    public Rectangle getViewport() {
+        return new Rectangle(getX(), getY(), board.getWidth(),
+                board.getHeight());
+    }
+
+    /**
+     * Checks whether a rectangle of the world is at least partly shown on
+     * the board.
+     *
+     * @param worldX x coordinate of the rectangle
+     * @param worldY y coordinate of the rectangle
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     * @return {@code true} if the rectangle is visible
+     */
+    public boolean isVisible(int worldX, int worldY, int width, int height) {
+        int left = getX();
+        int top = getY();
+
+        return (worldX < left + board.getWidth())
+                && (worldX + width > left)
+                && (worldY < top + board.getHeight())
+                && (worldY + height > top);
+    }
+
+    /**
+     * Converts a position on the board, e.g. of the mouse, to the world.
+     *
+     * @param screen the position on the board
+     * @return the position in the world
+     */
+    public Point toWorld(Point screen) {
+        return new Point(screen.x + getX(), screen.y + getY());
+    }
+
+    /**
+     * Converts a position in the world to the board.
+     *
+     * @param world the position in the world
+     * @return the position on the board
+     */
+    public Point toScreen(Point world) {
+        return new Point(world.x - getX(), world.y - getY());
+    }
+
+    /**
+     * Keep the viewport inside the world bounds.
+     */
+    private void clamp() {
+
+        Rectangle b = worldBounds;
+
+        if (b == null) {
+            return;
+        }
+
+        x = Math.max(b.x, Math.min(x, b.x + b.width - board.getWidth()));
+        y = Math.max(b.y, Math.min(y, b.y + b.height - board.getHeight()));
+    }
+}
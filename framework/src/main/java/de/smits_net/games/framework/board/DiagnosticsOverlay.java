@@ -0,0 +1,405 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import de.smits_net.games.framework.Constants;
+import de.smits_net.games.framework.board.FrameStatistics.Phase;
+import de.smits_net.games.framework.image.ImageBase;
+import de.smits_net.games.framework.image.TextCache;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.event.KeyEvent;
+import java.util.Arrays;
+
+/**
+ * Diagnostic information drawn on top of a running {@link Board}. The
+ * overlay shows the durations of the last frames as a graph, the mean
+ * costs of the phases of a frame, the number of sprites drawn and the
+ * collision tests executed per frame and the state of the image caches.
+ * <p>
+ * The overlay is part of every board and hidden by default. It is shown
+ * and hidden with the toggle key (see
+ * {@link DiagnosticsOverlay#setToggleKey(int)}) or with
+ * {@link DiagnosticsOverlay#setVisible(boolean)}. As long as it is hidden,
+ * nothing is measured or drawn, so it can stay in released games.
+ * <p>
+ * The settings can be changed by any thread. The counters are updated by
+ * the game thread.
+ */
+public class DiagnosticsOverlay {
+
+    /** Key showing and hiding the overlay by default. */
+    public static final int DEFAULT_TOGGLE_KEY = KeyEvent.VK_F3;
+
+    /** Number of frames shown in the graph. */
+    private static final int GRAPH_FRAMES = 120;
+
+    /** Height of the graph in pixels. */
+    private static final int GRAPH_HEIGHT = 50;
+
+    /** Distance between two lines of text. */
+    private static final int LINE_HEIGHT = 12;
+
+    /** Space around the content of the overlay. */
+    private static final int MARGIN = 4;
+
+    /** Width of a frame in the graph. */
+    private static final int BAR_WIDTH = 2;
+
+    /** Width of the overlay, large enough for the longest text. */
+    private static final int WIDTH = 300;
+
+    /** Phases whose costs are shown, the complete frame is in the graph. */
+    private static final Phase[] PHASES = {
+            Phase.EVENTS, Phase.UPDATE, Phase.RENDER, Phase.PAINT,
+            Phase.SLEEP, Phase.CATCH_UP };
+
+    /** Number of lines of text. */
+    private static final int LINES = PHASES.length + 5;
+
+    /** Height of the overlay. */
+    private static final int HEIGHT
+            = GRAPH_HEIGHT + LINES * LINE_HEIGHT + 3 * MARGIN;
+
+    /** Time between two updates of the texts. */
+    private static final long TEXT_INTERVAL
+            = Constants.NANOSECONDS_PER_SECOND / 4;
+
+    /** Font of the texts. */
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+
+    /** Background of the overlay. */
+    private static final Color BACKGROUND = new Color(0, 0, 0, 176);
+
+    /** Color of frames that kept the delay. */
+    private static final Color ON_TIME = new Color(64, 224, 64);
+
+    /** Color of frames that took longer than the delay. */
+    private static final Color LATE = new Color(240, 64, 64);
+
+    /** Time between two frames in nano seconds. */
+    private final long delay;
+
+    /** Images of the texts drawn by the board. */
+    private final TextCache textCache;
+
+    /** The overlay is shown. */
+    private volatile boolean visible;
+
+    /** Outlines of the sprites are drawn. */
+    private volatile boolean spriteOutlines;
+
+    /** Key showing and hiding the overlay. */
+    private volatile int toggleKey = DEFAULT_TOGGLE_KEY;
+
+    /** Request to remove the measured values with the next frame. */
+    private volatile boolean clearRequested;
+
+    /** Durations of the last frames. */
+    private final long[] frameTimes = new long[GRAPH_FRAMES];
+
+    /** Position of the next frame in {@link #frameTimes}. */
+    private int frameIndex;
+
+    /** Number of frames measured since the overlay was shown. */
+    private int frameCount;
+
+    /** Time spent in the phases since the last update of the texts. */
+    private final long[] phaseTimes = new long[Phase.values().length];
+
+    /** Frames measured since the last update of the texts. */
+    private int intervalFrames;
+
+    /** Collision tests executed since the last update of the texts. */
+    private long intervalCollisionTests;
+
+    /** Collision tests executed in the current frame. */
+    private int collisionTests;
+
+    /** Sprites drawn in the current frame. */
+    private int spritesDrawn;
+
+    /** Sprites drawn are counted, i.e. they are drawn into the frame. */
+    private boolean countingSprites = true;
+
+    /** Sprites drawn in the last frame drawn. */
+    private int lastSpritesDrawn;
+
+    /** Time of the last update of the texts. */
+    private long lastTextUpdate;
+
+    /** The texts shown below the graph. */
+    private final String[] lines = new String[LINES];
+
+    /**
+     * Create a new overlay.
+     *
+     * @param delay time between two frames in nano seconds
+     * @param textCache images of the texts drawn by the board
+     */
+    DiagnosticsOverlay(long delay, TextCache textCache) {
+        this.delay = delay;
+        this.textCache = textCache;
+        clear();
+    }
+
+    /**
+     * Shows or hides the overlay.
+     *
+     * @param visible {@code true} to show the overlay
+     */
+    public void setVisible(boolean visible) {
+
+        if (visible && !this.visible) {
+            // do not show values from the time the overlay was hidden
+            clearRequested = true;
+        }
+
+        this.visible = visible;
+    }
+
+    /**
+     * Indicates whether the overlay is shown.
+     *
+     * @return {@code true} if shown
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Shows the overlay if it is hidden and hides it otherwise.
+     */
+    public void toggle() {
+        setVisible(!visible);
+    }
+
+    /**
+     * Sets the key showing and hiding the overlay. The key is not passed
+     * on to the game.
+     *
+     * @param toggleKey key code (see {@link KeyEvent}) or
+     *                  {@link KeyEvent#VK_UNDEFINED} to disable the key
+     */
+    public void setToggleKey(int toggleKey) {
+        this.toggleKey = toggleKey;
+    }
+
+    /**
+     * Returns the key showing and hiding the overlay.
+     *
+     * @return the key code
+     */
+    public int getToggleKey() {
+        return toggleKey;
+    }
+
+    /**
+     * Switches the drawing of the outlines of the sprites on or off. The
+     * outlines are drawn independent of the visibility of the overlay.
+     *
+     * @param spriteOutlines {@code true} to draw the outlines
+     */
+    public void setSpriteOutlines(boolean spriteOutlines) {
+        this.spriteOutlines = spriteOutlines;
+    }
+
+    /**
+     * Indicates whether the outlines of the sprites are drawn.
+     *
+     * @return {@code true} if the outlines are drawn
+     */
+    public boolean isSpriteOutlines() {
+        return spriteOutlines || Constants.DEBUG_SPRITE_OUTLINE;
+    }
+
+    /**
+     * Counts a sprite drawn in the current frame. Called by the sprites.
+     */
+    public void spriteDrawn() {
+        if (visible && countingSprites) {
+            spritesDrawn++;
+        }
+    }
+
+    /**
+     * Switches the counting of the sprites drawn on or off, e.g. while the
+     * sprites are drawn into an image instead of the frame.
+     *
+     * @param countingSprites {@code true} to count the sprites drawn
+     */
+    void setCountingSprites(boolean countingSprites) {
+        this.countingSprites = countingSprites;
+    }
+
+    /**
+     * Counts a collision test executed in the current frame. Called by the
+     * sprites.
+     */
+    public void collisionTested() {
+        if (visible) {
+            collisionTests++;
+        }
+    }
+
+    /**
+     * Record the costs of the frame that just finished. Must be called
+     * before the statistics of the frame are reset.
+     *
+     * @param statistics the statistics of the board
+     * @param frameNanos duration of the complete frame in nano seconds
+     */
+    void frameFinished(FrameStatistics statistics, long frameNanos) {
+
+        if (clearRequested) {
+            clearRequested = false;
+            clear();
+        }
+
+        frameTimes[frameIndex] = frameNanos;
+        frameIndex = (frameIndex + 1) % GRAPH_FRAMES;
+        frameCount = Math.min(frameCount + 1, GRAPH_FRAMES);
+
+        for (Phase phase : PHASES) {
+            phaseTimes[phase.ordinal()] += statistics.getCurrent(phase);
+        }
+
+        intervalFrames++;
+        intervalCollisionTests += collisionTests;
+        collisionTests = 0;
+
+        long now = System.nanoTime();
+
+        if (now - lastTextUpdate >= TEXT_INTERVAL) {
+            updateLines();
+            lastTextUpdate = now;
+        }
+    }
+
+    /**
+     * Draw the overlay.
+     *
+     * @param g the graphics context
+     * @return the region covered by the overlay
+     */
+    Rectangle draw(Graphics g) {
+
+        lastSpritesDrawn = spritesDrawn;
+        spritesDrawn = 0;
+
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+
+        int bottom = MARGIN + GRAPH_HEIGHT;
+
+        // the graph covers two delays, the line marks one delay
+        for (int i = 0; i < frameCount; i++) {
+            int index = (frameIndex - frameCount + i + GRAPH_FRAMES)
+                    % GRAPH_FRAMES;
+            long time = frameTimes[index];
+            int height = (int) Math.min(GRAPH_HEIGHT,
+                    time * GRAPH_HEIGHT / (2 * delay));
+
+            g.setColor((time > delay) ? LATE : ON_TIME);
+            g.fillRect(MARGIN + BAR_WIDTH * i, bottom - height,
+                    BAR_WIDTH, height);
+        }
+
+        g.setColor(Color.YELLOW);
+        g.drawLine(MARGIN, bottom - GRAPH_HEIGHT / 2,
+                MARGIN + BAR_WIDTH * GRAPH_FRAMES, bottom - GRAPH_HEIGHT / 2);
+
+        g.setColor(Color.WHITE);
+        g.setFont(FONT);
+
+        // long texts must not leave the region reported as drawn
+        Shape clip = g.getClip();
+        g.clipRect(0, 0, WIDTH, HEIGHT);
+
+        int y = bottom + MARGIN;
+
+        for (String line : lines) {
+            y += LINE_HEIGHT;
+            g.drawString(line, MARGIN, y);
+        }
+
+        g.setClip(clip);
+
+        return new Rectangle(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Remove all measured values.
+     */
+    private void clear() {
+
+        frameIndex = 0;
+        frameCount = 0;
+        spritesDrawn = 0;
+        collisionTests = 0;
+        startInterval();
+        updateLines();
+    }
+
+    /**
+     * Format the texts from the values measured since the last update
+     * and start a new interval.
+     */
+    private void updateLines() {
+
+        int frames = Math.max(1, intervalFrames);
+        long last = (frameCount == 0) ? 0L
+                : frameTimes[(frameIndex - 1 + GRAPH_FRAMES) % GRAPH_FRAMES];
+        long max = 0L;
+
+        for (int i = 0; i < frameCount; i++) {
+            max = Math.max(max, frameTimes[i]);
+        }
+
+        int line = 0;
+
+        lines[line++] = String.format("FRAME     %7.2f ms  max %7.2f ms",
+                toMillis(last), toMillis(max));
+
+        for (Phase phase : PHASES) {
+            lines[line++] = String.format("%-9s %7.3f ms", phase,
+                    toMillis(phaseTimes[phase.ordinal()] / frames));
+        }
+
+        lines[line++] = String.format("Sprites %d, collision tests %d",
+                lastSpritesDrawn, intervalCollisionTests / frames);
+
+        lines[line++] = String.format("Images  %d cached, %d hits, %d misses",
+                ImageBase.getCacheSize(), ImageBase.getCacheHits(),
+                ImageBase.getCacheMisses());
+
+        lines[line++] = String.format("Texts   %d cached, %d hits, %d misses",
+                textCache.size(), textCache.getHits(), textCache.getMisses());
+
+        lines[line] = String.format("Delay   %7.2f ms", toMillis(delay));
+
+        startInterval();
+    }
+
+    /**
+     * Start a new interval for the mean values.
+     */
+    private void startInterval() {
+        intervalFrames = 0;
+        intervalCollisionTests = 0L;
+        Arrays.fill(phaseTimes, 0L);
+    }
+
+    /**
+     * Convert nano seconds to milliseconds.
+     *
+     * @param nanos the time in nano seconds
+     * @return the time in milliseconds
+     */
+    private static double toMillis(long nanos) {
+        return (double) nanos / Constants.NANOSECONDS_PER_MILLISECOND;
+    }
+}
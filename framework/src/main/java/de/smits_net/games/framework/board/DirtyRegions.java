@@ -0,0 +1,181 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set of regions of a board that have to be drawn again. Overlapping
+ * regions are merged, so that no pixel is drawn twice. If the regions
+ * become too many or cover a large part of the board, the set degrades to
+ * the complete board, because drawing everything is cheaper then.
+ */
+final class DirtyRegions {
+
+    /** Maximum number of regions before the complete board is used. */
+    private static final int MAX_REGIONS = 32;
+
+    /**
+     * Maximum percentage of the area of the board covered by the regions
+     * before the complete board is used.
+     */
+    private static final int MAX_COVERAGE = 50;
+
+    /** The area of the board. */
+    private final Rectangle area;
+
+    /** The regions. */
+    private final List<Rectangle> regions = new ArrayList<>();
+
+    /** The complete board is dirty. */
+    private boolean all;
+
+    /**
+     * Create a new, empty set.
+     *
+     * @param width width of the board
+     * @param height height of the board
+     */
+    DirtyRegions(int width, int height) {
+        this.area = new Rectangle(0, 0, width, height);
+    }
+
+    /**
+     * Add a region. The part of the region outside the board is ignored.
+     *
+     * @param x x coordinate of the region
+     * @param y y coordinate of the region
+     * @param width width of the region
+     * @param height height of the region
+     */
+    void add(int x, int y, int width, int height) {
+
+        if (all) {
+            return;
+        }
+
+        int x1 = Math.max(x, area.x);
+        int y1 = Math.max(y, area.y);
+        int x2 = Math.min(x + width, area.x + area.width);
+        int y2 = Math.min(y + height, area.y + area.height);
+
+        if ((x1 >= x2) || (y1 >= y2)) {
+            // outside of the board
+            return;
+        }
+
+        regions.add(new Rectangle(x1, y1, x2 - x1, y2 - y1));
+
+        if (regions.size() > 4 * MAX_REGIONS) {
+            merge();
+        }
+    }
+
+    /**
+     * Add all regions of the given set.
+     *
+     * @param other the regions to be added
+     */
+    void addAll(DirtyRegions other) {
+
+        if (other.all) {
+            markAll();
+        }
+        else {
+            for (Rectangle r : other.regions) {
+                add(r.x, r.y, r.width, r.height);
+            }
+        }
+    }
+
+    /**
+     * Mark the complete board as dirty.
+     */
+    void markAll() {
+        all = true;
+        regions.clear();
+    }
+
+    /**
+     * Indicates whether the complete board is dirty.
+     *
+     * @return {@code true} if the complete board is dirty
+     */
+    boolean isAll() {
+        return all;
+    }
+
+    /**
+     * Remove all regions.
+     */
+    void clear() {
+        all = false;
+        regions.clear();
+    }
+
+    /**
+     * Merge overlapping regions and regions whose bounding box is not
+     * larger than the two regions together. Switches to the complete
+     * board if the remaining regions are still too many or too large.
+     *
+     * @return the merged regions, empty if the complete board is dirty
+     */
+    List<Rectangle> merge() {
+
+        boolean merged = true;
+
+        while (merged) {
+            merged = false;
+
+            for (int i = 0; i < regions.size(); i++) {
+                Rectangle a = regions.get(i);
+
+                for (int k = regions.size() - 1; k > i; k--) {
+                    Rectangle b = regions.get(k);
+                    Rectangle union = a.union(b);
+
+                    if (a.intersects(b) || (areaOf(union)
+                            <= areaOf(a) + areaOf(b))) {
+                        a.setBounds(union);
+                        regions.remove(k);
+                        merged = true;
+                    }
+                }
+            }
+        }
+
+        long covered = 0L;
+
+        for (Rectangle r : regions) {
+            covered += areaOf(r);
+        }
+
+        if ((regions.size() > MAX_REGIONS)
+                || (covered * 100 > areaOf(area) * MAX_COVERAGE)) {
+            markAll();
+        }
+
+        return regions;
+    }
+
+    /**
+     * Returns the regions. The regions may overlap if
+     * {@link DirtyRegions#merge()} was not called before.
+     *
+     * @return the regions, empty if the complete board is dirty
+     */
+    List<Rectangle> getRegions() {
+        return regions;
+    }
+
+    /**
+     * Calculate the area of a rectangle.
+     *
+     * @param r the rectangle
+     * @return the area in pixels
+     */
+    private static long areaOf(Rectangle r) {
+        return (long) r.width * r.height;
+    }
+}
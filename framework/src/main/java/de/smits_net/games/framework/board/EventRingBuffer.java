@@ -0,0 +1,152 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free queue used to pass events from the AWT threads to the
+ * game thread. Any number of threads may add events but only one thread
+ * may remove them.
+ * <p>
+ * The queue is a ring buffer with a sequence number per slot as described
+ * by Dmitry Vyukov ("Bounded MPMC queue", 1024cores.net). Adding and
+ * removing events does not allocate any memory. If the queue is full, new
+ * events are dropped and counted.
+ *
+ * @param <T> type of the events
+ */
+final class EventRingBuffer<T> {
+
+    /** The events. */
+    private final AtomicReferenceArray<T> buffer;
+
+    /**
+     * Sequence number of each slot. A slot with sequence {@code n} can be
+     * written by the producer claiming position {@code n} and read by the
+     * consumer at position {@code n - 1}.
+     */
+    private final AtomicLongArray sequences;
+
+    /** Mask to map a position to an index of the buffer. */
+    private final int mask;
+
+    /** Next position to be claimed by a producer. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Next position to be read, only accessed by the consumer. */
+    private long head;
+
+    /** Number of events dropped because the queue was full. */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Create a new queue.
+     *
+     * @param capacity maximum number of events stored, has to be a power
+     *                 of two
+     */
+    EventRingBuffer(int capacity) {
+
+        if ((capacity <= 0) || (Integer.bitCount(capacity) != 1)) {
+            throw new IllegalArgumentException(
+                    "Capacity must be a power of two: " + capacity);
+        }
+
+        buffer = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        mask = capacity - 1;
+
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an event to the queue. May be called by any thread.
+     *
+     * @param event the event to be added
+     * @return {@code true} if the event was added, {@code false} if the
+     *      queue was full and the event was dropped
+     */
+    boolean offer(T event) {
+
+        long position = tail.get();
+        int index;
+
+        while (true) {
+            index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0) {
+                // slot is free, try to claim it
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            }
+            else if (difference < 0) {
+                // slot still contains an event not read by the consumer
+                dropped.incrementAndGet();
+                return false;
+            }
+            else {
+                // another producer claimed the slot in the meantime
+                position = tail.get();
+            }
+        }
+
+        buffer.lazySet(index, event);
+
+        // publish the event to the consumer
+        sequences.set(index, position + 1);
+
+        return true;
+    }
+
+    /**
+     * Remove the events currently stored in the queue and pass them to the
+     * given consumer. Events added while the queue is drained are left for
+     * the next call. Must only be called by the consumer thread.
+     *
+     * @param consumer receiver of the events
+     * @return the number of events passed to the consumer
+     */
+    int drain(Consumer<? super T> consumer) {
+
+        long end = tail.get();
+        int count = 0;
+
+        while (head < end) {
+            int index = (int) head & mask;
+
+            if (sequences.get(index) != head + 1) {
+                // producer claimed the slot but did not publish yet
+                break;
+            }
+
+            T event = buffer.get(index);
+            buffer.lazySet(index, null);
+
+            // release the slot for the producers
+            sequences.set(index, head + mask + 1);
+            head++;
+
+            consumer.accept(event);
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the number of events dropped because the queue was full.
+     *
+     * @return number of dropped events
+     */
+    long getDropped() {
+        return dropped.get();
+    }
+}
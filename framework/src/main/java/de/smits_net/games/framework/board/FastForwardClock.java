@@ -0,0 +1,41 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+/**
+ * Clock with a simulated time that advances in fixed steps without ever
+ * waiting for the real time. A game using this clock runs as fast as the
+ * machine allows, while the game objects still see the time advance in
+ * the same steps as with a {@link FixedStepClock}. This is useful to run
+ * simulations or automated tests many times faster than real time.
+ */
+public class FastForwardClock extends FixedStepClock {
+
+    /**
+     * Create a new clock.
+     *
+     * @param step size of one step in nano seconds
+     */
+    public FastForwardClock(long step) {
+        super(step);
+    }
+
+    /**
+     * Never busy-waits, because it never waits.
+     *
+     * @see GameClock#isSpinning()
+     */
+    @Override
+    public boolean isSpinning() {
+        return false;
+    }
+
+    /**
+     * Does not wait at all.
+     *
+     * @see FixedStepClock#waitForRealTime()
+     */
+    @Override
+    protected void waitForRealTime() {
+        // never wait
+    }
+}
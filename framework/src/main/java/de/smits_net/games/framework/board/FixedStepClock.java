@@ -0,0 +1,123 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+/**
+ * Clock with a simulated time that advances in fixed steps. The time does
+ * not change while the game is updated or drawn, it only advances when the
+ * game loop waits for the next frame. Therefore, every frame takes exactly
+ * the same time, independent of the speed of the machine, and the game
+ * behaves deterministic.
+ * <p>
+ * When waiting, the time advances by the requested time rounded up to the
+ * next multiple of the step, but at least by one step. This clock keeps
+ * pace with the real time, i.e. it waits until the real time passed since
+ * its first use has caught up with the simulated time. Use the
+ * {@link FastForwardClock} to run the game as fast as possible instead.
+ */
+public class FixedStepClock implements GameClock {
+
+    /**
+     * Marker for a clock that was not used yet. The origin of the real time
+     * is arbitrary and may be negative, so no sign can serve as marker.
+     */
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    /** Size of one step in nano seconds. */
+    private final long step;
+
+    /** The simulated time. */
+    private volatile long time;
+
+    /** Clock used to wait for the real time. */
+    private final RealTimeClock realTime = new RealTimeClock();
+
+    /** Real time of the first use, {@link #NOT_STARTED} if not used yet. */
+    private long origin = NOT_STARTED;
+
+    /**
+     * Create a new clock.
+     *
+     * @param step size of one step in nano seconds
+     */
+    public FixedStepClock(long step) {
+
+        if (step <= 0) {
+            throw new IllegalArgumentException(
+                    "Step must be positive: " + step);
+        }
+
+        this.step = step;
+    }
+
+    /**
+     * Returns the size of one step.
+     *
+     * @return the step in nano seconds
+     */
+    public long getStep() {
+        return step;
+    }
+
+    /**
+     * @see GameClock#nanoTime()
+     */
+    @Override
+    public long nanoTime() {
+        return time;
+    }
+
+    /**
+     * @see GameClock#sleep(long)
+     */
+    @Override
+    public void sleep(long nanos) throws InterruptedException {
+        skip(nanos);
+        waitForRealTime();
+    }
+
+    /**
+     * Switches busy-waiting on or off while waiting for the real time.
+     *
+     * @see GameClock#setSpinning(boolean)
+     */
+    @Override
+    public void setSpinning(boolean spinning) {
+        realTime.setSpinning(spinning);
+    }
+
+    /**
+     * @see GameClock#isSpinning()
+     */
+    @Override
+    public boolean isSpinning() {
+        return realTime.isSpinning();
+    }
+
+    /**
+     * @see GameClock#skip(long)
+     */
+    @Override
+    public void skip(long nanos) {
+        long steps = Math.max(1L, (nanos + step - 1) / step);
+        time += steps * step;
+    }
+
+    /**
+     * Wait until the real time has caught up with the simulated time.
+     *
+     * @throws InterruptedException if the thread is interrupted while
+     *      waiting
+     */
+    protected void waitForRealTime() throws InterruptedException {
+
+        if (origin == NOT_STARTED) {
+            origin = realTime.nanoTime() - time;
+        }
+
+        long remaining = origin + time - realTime.nanoTime();
+
+        if (remaining > 0) {
+            realTime.sleep(remaining);
+        }
+    }
+}
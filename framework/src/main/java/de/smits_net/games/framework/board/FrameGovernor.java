@@ -0,0 +1,363 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import de.smits_net.games.framework.Constants;
+
+/**
+ * Adapts the game loop of a {@link Board} to the speed of the machine.
+ * The governor watches the time spent for updating and drawing the game
+ * over a sliding window of frames and derives
+ * <ul>
+ *     <li>how many updates the game loop may execute without drawing to
+ *     catch up if it fell behind (frame skips),</li>
+ *     <li>when the game loop has to give other threads the opportunity to
+ *     run because it did not sleep for a long time and</li>
+ *     <li>optionally, the quality the game should be drawn with to keep
+ *     the delay between two frames (see
+ *     {@link FrameGovernor#setAdaptiveQuality(boolean)}).</li>
+ * </ul>
+ * <p>
+ * The governor is fed by the game thread. The settings can be changed and
+ * the derived values read by any thread.
+ */
+public class FrameGovernor {
+
+    /**
+     * The quality the game is drawn with. The meaning of the levels is
+     * defined by the game, e.g. it can switch off parallax layers or
+     * animations on lower levels.
+     */
+    public enum Quality {
+        /** Everything is drawn. */
+        HIGH,
+
+        /** Expensive effects are switched off. */
+        MEDIUM,
+
+        /** Only the elements required to play the game are drawn. */
+        LOW
+    }
+
+    /** Number of frames in the sliding window. */
+    private static final int WINDOW = 64;
+
+    /** Default for the maximum number of frame skips. */
+    private static final int DEFAULT_SKIP_LIMIT = 10;
+
+    /** Frame skips allowed until the first window is complete. */
+    private static final int INITIAL_FRAME_SKIPS = 5;
+
+    /**
+     * Percentage of the delay a frame may cost before the quality is
+     * lowered.
+     */
+    private static final int DEGRADE_PERCENT = 95;
+
+    /**
+     * Percentage of the delay a frame must cost at most before the
+     * quality is raised again.
+     */
+    private static final int UPGRADE_PERCENT = 60;
+
+    /**
+     * Number of windows the costs must stay low before the quality is
+     * raised again. Raising the quality is done more carefully than
+     * lowering it to avoid oscillation.
+     */
+    private static final int UPGRADE_WINDOWS = 4;
+
+    /** Time without sleeping after which other threads get the CPU. */
+    private static final long YIELD_INTERVAL
+            = 50L * Constants.NANOSECONDS_PER_MILLISECOND;
+
+    /**
+     * Sliding window of measured costs.
+     */
+    private static final class Window {
+
+        /** The values. */
+        private final long[] values = new long[WINDOW];
+
+        /** Position of the next value. */
+        private int index;
+
+        /** Number of values stored. */
+        private int count;
+
+        /** Sum of the values stored. */
+        private long sum;
+
+        /**
+         * Add a value and remove the oldest one if the window is full.
+         *
+         * @param value the value
+         */
+        void add(long value) {
+            sum += value - values[index];
+            values[index] = value;
+            index = (index + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+        }
+
+        /**
+         * Returns the mean of the values.
+         *
+         * @return the mean or {@code 0} if empty
+         */
+        long mean() {
+            return (count == 0) ? 0L : sum / count;
+        }
+
+        /**
+         * Indicates whether the window is complete.
+         *
+         * @return {@code true} if the window is full
+         */
+        boolean isFull() {
+            return count == WINDOW;
+        }
+    }
+
+    /** Time between two frames in nano seconds. */
+    private final long delay;
+
+    /** Costs of one update. */
+    private final Window updateCosts = new Window();
+
+    /** Costs of drawing a frame and bringing it to the screen. */
+    private final Window renderCosts = new Window();
+
+    /** Maximum number of frame skips. */
+    private volatile int skipLimit = DEFAULT_SKIP_LIMIT;
+
+    /** Current number of frame skips. */
+    private volatile int maxFrameSkips = INITIAL_FRAME_SKIPS;
+
+    /** Adapt the quality to the measured costs. */
+    private volatile boolean adaptiveQuality;
+
+    /** Current quality. */
+    private volatile Quality quality = Quality.HIGH;
+
+    /** Quality the board was notified about. */
+    private Quality notifiedQuality = Quality.HIGH;
+
+    /** Frames since the last change of the quality. */
+    private int framesSinceChange;
+
+    /** Time the game loop runs without sleeping. */
+    private long busyTime;
+
+    /**
+     * Create a new governor.
+     *
+     * @param delay time between two frames in nano seconds
+     */
+    FrameGovernor(long delay) {
+        this.delay = delay;
+    }
+
+    /**
+     * Returns the number of updates the game loop may execute without
+     * drawing to catch up.
+     *
+     * @return number of frame skips
+     */
+    public int getMaxFrameSkips() {
+        return maxFrameSkips;
+    }
+
+    /**
+     * Sets the upper bound for the number of frame skips. If updating the
+     * game takes longer than the delay between two frames, the game can
+     * never catch up. In this case, the game slows down instead of skipping
+     * more frames.
+     *
+     * @param skipLimit maximum number of frame skips, at least 1
+     */
+    public void setSkipLimit(int skipLimit) {
+
+        if (skipLimit < 1) {
+            throw new IllegalArgumentException(
+                    "Skip limit must be at least 1: " + skipLimit);
+        }
+
+        this.skipLimit = skipLimit;
+    }
+
+    /**
+     * Returns the upper bound for the number of frame skips.
+     *
+     * @return maximum number of frame skips
+     */
+    public int getSkipLimit() {
+        return skipLimit;
+    }
+
+    /**
+     * Returns the mean time of one update in the sliding window.
+     *
+     * @return the time in nano seconds
+     */
+    public long getMeanUpdateTime() {
+        return updateCosts.mean();
+    }
+
+    /**
+     * Returns the mean time of drawing one frame and bringing it to the
+     * screen in the sliding window.
+     *
+     * @return the time in nano seconds
+     */
+    public long getMeanRenderTime() {
+        return renderCosts.mean();
+    }
+
+    /**
+     * Switches the adaption of the quality on or off. If switched on, the
+     * quality is lowered if a frame costs nearly the complete delay between
+     * two frames and raised again if there is enough time left. The board
+     * is notified about changes with
+     * {@link Board#qualityChanged(Quality)}.
+     *
+     * @param adaptiveQuality {@code true} to adapt the quality
+     */
+    public void setAdaptiveQuality(boolean adaptiveQuality) {
+        this.adaptiveQuality = adaptiveQuality;
+    }
+
+    /**
+     * Indicates whether the quality is adapted to the measured costs.
+     *
+     * @return {@code true} if the quality is adapted
+     */
+    public boolean isAdaptiveQuality() {
+        return adaptiveQuality;
+    }
+
+    /**
+     * Returns the quality the game should be drawn with.
+     *
+     * @return the quality
+     */
+    public Quality getQuality() {
+        return quality;
+    }
+
+    /**
+     * Sets the quality the game should be drawn with. If the quality is
+     * adapted, it may change again later.
+     *
+     * @param quality the quality
+     */
+    public void setQuality(Quality quality) {
+        this.quality = quality;
+    }
+
+    /**
+     * Record the costs of a frame and adapt the derived values.
+     *
+     * @param updateTime time spent for the updates in nano seconds
+     * @param updates number of updates executed
+     * @param renderTime time spent for drawing the frame and bringing it
+     *                   to the screen in nano seconds
+     * @return {@code true} if the quality changed since the last frame
+     */
+    boolean frameFinished(long updateTime, long updates, long renderTime) {
+
+        if (updates > 0) {
+            updateCosts.add(updateTime / updates);
+        }
+
+        if (renderTime > 0) {
+            renderCosts.add(renderTime);
+        }
+
+        if (updateCosts.isFull() && renderCosts.isFull()) {
+            adaptFrameSkips();
+
+            if (adaptiveQuality) {
+                adaptQuality();
+            }
+        }
+
+        Quality current = quality;
+
+        if (current != notifiedQuality) {
+            notifiedQuality = current;
+            framesSinceChange = 0;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Record a frame that did not leave time to sleep.
+     *
+     * @param frameTime duration of the frame in nano seconds
+     * @return {@code true} if the game loop should give other threads the
+     *      opportunity to run
+     */
+    boolean frameLate(long frameTime) {
+
+        busyTime += frameTime;
+
+        if (busyTime >= YIELD_INTERVAL) {
+            busyTime = 0L;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Record a frame that left time to sleep.
+     */
+    void frameOnTime() {
+        busyTime = 0L;
+    }
+
+    /**
+     * Derive the number of frame skips from the costs. Drawing a frame and
+     * executing {@code k} updates must not take longer than {@code k}
+     * delays, i.e. {@code render + k * update <= k * delay}.
+     */
+    private void adaptFrameSkips() {
+
+        long update = updateCosts.mean();
+        long render = renderCosts.mean();
+        int limit = skipLimit;
+
+        if (update >= delay) {
+            maxFrameSkips = limit;
+        }
+        else {
+            long slack = delay - update;
+            long required = (render + slack - 1) / slack;
+            maxFrameSkips = (int) Math.max(1L, Math.min(limit, required));
+        }
+    }
+
+    /**
+     * Lower or raise the quality depending on the costs of one update and
+     * one drawn frame.
+     */
+    private void adaptQuality() {
+
+        long cost = updateCosts.mean() + renderCosts.mean();
+        Quality current = quality;
+        framesSinceChange++;
+
+        if ((framesSinceChange >= WINDOW)
+                && (cost * 100 > delay * DEGRADE_PERCENT)
+                && (current != Quality.LOW)) {
+            quality = Quality.values()[current.ordinal() + 1];
+        }
+        else if ((framesSinceChange >= WINDOW * UPGRADE_WINDOWS)
+                && (cost * 100 < delay * UPGRADE_PERCENT)
+                && (current != Quality.HIGH)) {
+            quality = Quality.values()[current.ordinal() - 1];
+        }
+    }
+}
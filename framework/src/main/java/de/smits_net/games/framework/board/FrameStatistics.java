@@ -0,0 +1,176 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import de.smits_net.games.framework.Constants;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Durations of the phases of the frames executed by the game loop of a
+ * {@link Board}. For each phase, the time spent in one frame is recorded
+ * in a {@link Histogram}, so that not only the average but also the
+ * stutters (e.g. the 99th percentile or the maximum) become visible.
+ * <p>
+ * The statistics are recorded by the game thread and can be read by any
+ * other thread. The values read may be slightly inconsistent in this case.
+ */
+public class FrameStatistics {
+
+    /**
+     * The phases of a frame.
+     */
+    public enum Phase {
+        /** Dispatching the key and mouse events. */
+        EVENTS,
+
+        /** Calling {@link Board#updateGame()}. */
+        UPDATE,
+
+        /**
+         * Drawing the frame into the back buffer. In the pipelined mode
+         * (see {@link Board#setPipelined(boolean)}), recording the drawing
+         * operations for the render thread.
+         */
+        RENDER,
+
+        /**
+         * Bringing the back buffer to the screen. In the pipelined mode,
+         * waiting for the render thread to take over the frame.
+         */
+        PAINT,
+
+        /** Waiting for the next frame. */
+        SLEEP,
+
+        /**
+         * Additional updates executed because rendering was too slow.
+         * These updates are also contained in {@link Phase#EVENTS} and
+         * {@link Phase#UPDATE}.
+         */
+        CATCH_UP,
+
+        /** The complete frame. */
+        FRAME
+    }
+
+    /** Histograms for the phases. */
+    private final Map<Phase, Histogram> histograms = new EnumMap<>(Phase.class);
+
+    /** Time spent in the phases during the current frame. */
+    private final long[] current = new long[Phase.values().length];
+
+    /** Request to reset the statistics with the next frame. */
+    private volatile boolean resetRequested;
+
+    /**
+     * Create a new object.
+     */
+    public FrameStatistics() {
+        for (Phase phase : Phase.values()) {
+            histograms.put(phase, new Histogram());
+        }
+    }
+
+    /**
+     * Returns the histogram of the given phase.
+     *
+     * @param phase the phase
+     * @return the histogram
+     */
+    public Histogram getHistogram(Phase phase) {
+        return histograms.get(phase);
+    }
+
+    /**
+     * Returns the number of frames recorded.
+     *
+     * @return the number of frames
+     */
+    public long getFrames() {
+        return histograms.get(Phase.FRAME).getCount();
+    }
+
+    /**
+     * Remove all recorded values. The values are removed by the game thread
+     * before the next frame is recorded.
+     */
+    public void reset() {
+        resetRequested = true;
+    }
+
+    /**
+     * Add time spent in a phase to the current frame.
+     *
+     * @param phase the phase
+     * @param nanos duration in nano seconds
+     */
+    void add(Phase phase, long nanos) {
+        current[phase.ordinal()] += nanos;
+    }
+
+    /**
+     * Returns the time spent in a phase during the current frame so far.
+     *
+     * @param phase the phase
+     * @return duration in nano seconds
+     */
+    long getCurrent(Phase phase) {
+        return current[phase.ordinal()];
+    }
+
+    /**
+     * Finish the current frame and record the time spent in the phases.
+     *
+     * @param frameNanos duration of the complete frame in nano seconds
+     */
+    void endFrame(long frameNanos) {
+
+        if (resetRequested) {
+            resetRequested = false;
+            histograms.values().forEach(Histogram::reset);
+        }
+
+        current[Phase.FRAME.ordinal()] = frameNanos;
+
+        for (Phase phase : Phase.values()) {
+            histograms.get(phase).record(current[phase.ordinal()]);
+            current[phase.ordinal()] = 0L;
+        }
+    }
+
+    /**
+     * Returns a table with the percentiles of all phases in milliseconds.
+     *
+     * @return the statistics as text
+     */
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-9s %9s %9s %9s %9s%n",
+                "phase", "mean", "p50", "p99", "max"));
+
+        for (Phase phase : Phase.values()) {
+            Histogram h = histograms.get(phase);
+            sb.append(String.format("%-9s %9.3f %9.3f %9.3f %9.3f%n",
+                    phase,
+                    h.getMean() / Constants.NANOSECONDS_PER_MILLISECOND,
+                    toMillis(h.getPercentile(50.0)),
+                    toMillis(h.getPercentile(99.0)),
+                    toMillis(h.getMax())));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Convert nano seconds to milliseconds.
+     *
+     * @param nanos the time in nano seconds
+     * @return the time in milliseconds
+     */
+    private static double toMillis(long nanos) {
+        return (double) nanos / Constants.NANOSECONDS_PER_MILLISECOND;
+    }
+}
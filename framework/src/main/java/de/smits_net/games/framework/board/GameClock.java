@@ -0,0 +1,68 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+/**
+ * Source of the time for a {@link Board}. The game loop uses the clock to
+ * measure the duration of the frames and to wait for the next frame. All
+ * time dependent game objects (e.g. the animations of the sprites) read the
+ * time from the clock of their board.
+ * <p>
+ * By replacing the clock of a board, the game can run in real time
+ * ({@link RealTimeClock}, the default), with a deterministic time that
+ * advances in fixed steps ({@link FixedStepClock}) or as fast as possible
+ * ({@link FastForwardClock}).
+ */
+public interface GameClock {
+
+    /**
+     * Returns the current time. The value has no relation to the wall-clock
+     * time, only the differences between two values are meaningful.
+     *
+     * @return the current time in nano seconds
+     */
+    long nanoTime();
+
+    /**
+     * Wait for the given time. If the time is 0 or negative, the clock
+     * gives other threads the opportunity to run.
+     *
+     * @param nanos the time to wait in nano seconds
+     * @throws InterruptedException if the thread is interrupted while
+     *      waiting
+     */
+    void sleep(long nanos) throws InterruptedException;
+
+    /**
+     * Let the given time pass without waiting. Used by runtimes that run
+     * the frames back to back. Clocks that follow the real time ignore this
+     * call.
+     *
+     * @param nanos the time in nano seconds
+     */
+    default void skip(long nanos) {
+        // real time cannot be skipped
+    }
+
+    /**
+     * Switches busy-waiting for the end of the sleep time on or off. A
+     * busy-waiting thread wakes up more precisely but uses the CPU. On a
+     * virtual thread it also blocks the carrier thread, therefore, runtimes
+     * running many games in parallel switch it off. Clocks that never
+     * busy-wait ignore this call.
+     *
+     * @param spinning {@code true} to busy-wait for the end of the sleep
+     *      time, {@code false} to only park the thread
+     */
+    default void setSpinning(boolean spinning) {
+        // nothing to switch
+    }
+
+    /**
+     * Returns whether the clock busy-waits for the end of the sleep time.
+     *
+     * @return {@code true} if busy-waiting is used
+     */
+    default boolean isSpinning() {
+        return false;
+    }
+}
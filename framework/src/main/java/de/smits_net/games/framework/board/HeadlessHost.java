@@ -0,0 +1,285 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs many boards without a window in one JVM, e.g. for matches between
+ * bots, the training of an AI or the validation of games on a server.
+ * Every board runs with its own speed and is represented by a
+ * {@link HeadlessSession} giving access to its metrics.
+ * <p>
+ * A board displayed in a window gets its own platform thread, which
+ * sleeps most of the time. This does not scale to thousands of games.
+ * The host runs the boards either
+ * <ul>
+ *     <li>on virtual threads ({@link Mode#VIRTUAL_THREADS}). Every board
+ *     executes its normal game loop, but a sleeping board does not block
+ *     an operating system thread.</li>
+ *     <li>as periodic tasks of a shared scheduler ({@link Mode#SCHEDULER}).
+ *     The scheduler executes one frame of each board per delay of the
+ *     board, the boards do not sleep at all. The loop mode and the clock
+ *     of the boards are not used in this case.</li>
+ * </ul>
+ *
+ * <pre>
+ * try (HeadlessHost host = new HeadlessHost(HeadlessHost.Mode.SCHEDULER)) {
+ *     for (int i = 0; i &lt; 1000; i++) {
+ *         host.start(new MyBoard(), false);
+ *     }
+ *
+ *     for (HeadlessSession session : host.getSessions()) {
+ *         session.await();
+ *     }
+ * }
+ * </pre>
+ */
+public class HeadlessHost implements AutoCloseable {
+
+    /**
+     * How the boards are executed.
+     */
+    public enum Mode {
+        /** Every board runs its game loop on a virtual thread. */
+        VIRTUAL_THREADS,
+
+        /** The frames of all boards are executed by a shared scheduler. */
+        SCHEDULER
+    }
+
+    /** How the boards are executed. */
+    private final Mode mode;
+
+    /** The shared scheduler, {@code null} for virtual threads. */
+    private final ScheduledExecutorService scheduler;
+
+    /** The sessions still running. */
+    private final Map<Long, HeadlessSession> sessions
+            = new ConcurrentHashMap<>();
+
+    /** Number of the next session. */
+    private final AtomicLong nextId = new AtomicLong();
+
+    /**
+     * Create a new host. In the {@link Mode#SCHEDULER} mode, the scheduler
+     * uses one thread per processor.
+     *
+     * @param mode how the boards are executed
+     */
+    public HeadlessHost(Mode mode) {
+        this(mode, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a new host.
+     *
+     * @param mode how the boards are executed
+     * @param threads number of threads of the scheduler, ignored for
+     *                virtual threads
+     */
+    public HeadlessHost(Mode mode, int threads) {
+        this.mode = mode;
+
+        if (mode == Mode.SCHEDULER) {
+            AtomicLong threadNumber = new AtomicLong();
+
+            ThreadFactory factory = r -> {
+                Thread t = new Thread(r,
+                        "HeadlessHost-" + threadNumber.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+
+            scheduler = Executors.newScheduledThreadPool(threads, factory);
+        }
+        else {
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Returns how the boards are executed.
+     *
+     * @return the mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Starts a board and draws its frames into an offscreen image.
+     *
+     * @param board the board to be run
+     * @return the session of the board
+     */
+    public HeadlessSession start(Board board) {
+        return start(board, true);
+    }
+
+    /**
+     * Starts a board.
+     *
+     * @param board the board to be run
+     * @param render if set to {@code true} the frames are drawn into an
+     *               offscreen image, if set to {@code false} the drawing
+     *               methods of the board are not called at all
+     * @return the session of the board
+     * @throws IllegalStateException if the host was closed
+     */
+    public HeadlessSession start(Board board, boolean render) {
+
+        if ((scheduler != null) && scheduler.isShutdown()) {
+            throw new IllegalStateException("Host has been closed");
+        }
+
+        HeadlessSession session = new HeadlessSession(
+                nextId.incrementAndGet(), new HeadlessRunner(board, render));
+
+        sessions.put(session.getId(), session);
+
+        if (mode == Mode.SCHEDULER) {
+            schedule(session);
+        }
+        else {
+            startThread(session);
+        }
+
+        return session;
+    }
+
+    /**
+     * Returns the sessions still running.
+     *
+     * @return the sessions
+     */
+    public List<HeadlessSession> getSessions() {
+        return new ArrayList<>(sessions.values());
+    }
+
+    /**
+     * Returns the number of sessions still running.
+     *
+     * @return number of sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Stops all sessions, waits until they are over and releases the
+     * threads of the host.
+     */
+    @Override
+    public void close() {
+
+        for (HeadlessSession session : sessions.values()) {
+            session.stop();
+        }
+
+        try {
+            for (HeadlessSession session : getSessions()) {
+                session.await();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Run the game loop of the session on a new virtual thread.
+     *
+     * @param session the session
+     */
+    private void startThread(HeadlessSession session) {
+
+        Board board = session.getBoard();
+
+        // a spinning virtual thread blocks its carrier thread
+        board.getClock().setSpinning(false);
+
+        Thread.ofVirtual()
+                .name("HeadlessSession-" + session.getId())
+                .start(() -> {
+                    Throwable failure = null;
+
+                    try {
+                        board.run();
+                    }
+                    catch (RuntimeException | Error e) {
+                        failure = e;
+                    }
+                    finally {
+                        finish(session, failure);
+                    }
+                });
+    }
+
+    /**
+     * Execute the frames of the session periodically on the scheduler.
+     *
+     * @param session the session
+     */
+    private void schedule(HeadlessSession session) {
+
+        Board board = session.getBoard();
+
+        // the task needs its own future to cancel itself
+        ScheduledFuture<?>[] future = new ScheduledFuture<?>[1];
+
+        Runnable frame = () -> {
+            if (session.isDone()) {
+                return;
+            }
+
+            try {
+                if (board.isRunning()) {
+                    board.runFrame();
+                }
+
+                if (!board.isRunning()) {
+                    board.finishGame();
+                    finish(session, null);
+                }
+            }
+            catch (RuntimeException | Error e) {
+                finish(session, e);
+            }
+
+            if (session.isDone()) {
+                synchronized (future) {
+                    future[0].cancel(false);
+                }
+            }
+        };
+
+        synchronized (future) {
+            future[0] = scheduler.scheduleAtFixedRate(frame, 0L,
+                    board.getDelay(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Remove a finished session.
+     *
+     * @param session the session
+     * @param failure exception that terminated the game or {@code null}
+     */
+    private void finish(HeadlessSession session, Throwable failure) {
+        sessions.remove(session.getId());
+        session.finish(failure);
+    }
+}
@@ -0,0 +1,128 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Runs a {@link Board} without displaying it in a window. This class is
+ * the counterpart of {@link MainWindow} for machines without a display,
+ * e.g. to run simulations, load tests or benchmarks on a server. Start the
+ * JVM with {@code -Djava.awt.headless=true} in this case.
+ * <p>
+ * The board is updated and drawn exactly as in a window, but the frames
+ * are drawn into an offscreen image (or not drawn at all) and key and
+ * mouse events only occur if they are created by the program.
+ *
+ * <pre>
+ * HeadlessRunner runner = new HeadlessRunner(new MyBoard(), false);
+ *
+ * // run the game as fast as possible for 10000 frames
+ * runner.runFrames(10000);
+ * </pre>
+ * <p>
+ * To run the game loop itself faster than real time with a deterministic
+ * time, set a {@link FastForwardClock} on the board and use
+ * {@link HeadlessRunner#run()}.
+ * <p>
+ * A board must either be run by this class or be displayed in a window,
+ * not both.
+ */
+public class HeadlessRunner {
+
+    /** The board to be run. */
+    private final Board board;
+
+    /** The image the frames are drawn into, may be {@code null}. */
+    private final BufferedImage image;
+
+    /**
+     * Create a new runner that draws the frames into an offscreen image.
+     *
+     * @param board the board to be run
+     */
+    public HeadlessRunner(Board board) {
+        this(board, true);
+    }
+
+    /**
+     * Create a new runner.
+     *
+     * @param board the board to be run
+     * @param render if set to {@code true} the frames are drawn into an
+     *               offscreen image, if set to {@code false} the drawing
+     *               methods of the board are not called at all
+     */
+    public HeadlessRunner(Board board, boolean render) {
+        this.board = board;
+        this.image = render
+                ? new BufferedImage(board.getWidth(), board.getHeight(),
+                        BufferedImage.TYPE_INT_RGB)
+                : null;
+
+        board.setRenderTarget(new OffscreenRenderTarget(image));
+    }
+
+    /**
+     * Runs the game loop in the calling thread until the game is over.
+     * The game runs with the speed defined by the board.
+     */
+    public void run() {
+        board.run();
+    }
+
+    /**
+     * Runs the game loop in a new thread until the game is over. The game
+     * runs with the speed defined by the board.
+     *
+     * @return the thread running the game
+     */
+    public Thread start() {
+        Thread thread = new Thread(board);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Runs the given number of frames in the calling thread as fast as
+     * possible, i.e. without waiting between the frames. A simulated clock
+     * of the board advances by the delay of the board with each frame. The
+     * method returns earlier if the game is over.
+     *
+     * @param frames number of frames to be run
+     * @return the number of frames actually run
+     */
+    public int runFrames(int frames) {
+
+        int count = 0;
+
+        while ((count < frames) && board.isRunning()) {
+            board.runFrame();
+            count++;
+        }
+
+        if (!board.isRunning()) {
+            board.finishGame();
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the board run by this object.
+     *
+     * @return the board
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the image the frames are drawn into. The content of the image
+     * is only consistent if no frame is drawn at the same time.
+     *
+     * @return the image or {@code null} if the frames are not drawn
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+}
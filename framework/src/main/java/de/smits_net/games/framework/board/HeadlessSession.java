@@ -0,0 +1,175 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import de.smits_net.games.framework.Constants;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A board run by a {@link HeadlessHost}. The session gives access to the
+ * board and to the metrics of the game and allows to stop it or to wait
+ * until it is over.
+ */
+public class HeadlessSession {
+
+    /** Number of the session, unique within its host. */
+    private final long id;
+
+    /** Runner used to draw the board without a window. */
+    private final HeadlessRunner runner;
+
+    /** Released as soon as the game is over. */
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /** Real time the session was started. */
+    private final long startTime = System.nanoTime();
+
+    /** Real time the session was finished, {@code 0} if still running. */
+    private volatile long endTime;
+
+    /** Exception that terminated the game, {@code null} if none. */
+    private volatile Throwable failure;
+
+    /**
+     * Create a new session.
+     *
+     * @param id number of the session
+     * @param runner runner used to draw the board
+     */
+    HeadlessSession(long id, HeadlessRunner runner) {
+        this.id = id;
+        this.runner = runner;
+    }
+
+    /**
+     * Returns the number of the session. The number is unique within the
+     * host that started the session.
+     *
+     * @return the number
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the board of the session.
+     *
+     * @return the board
+     */
+    public Board getBoard() {
+        return runner.getBoard();
+    }
+
+    /**
+     * Returns the image the frames are drawn into.
+     *
+     * @return the image or {@code null} if the frames are not drawn
+     * @see HeadlessRunner#getImage()
+     */
+    public BufferedImage getImage() {
+        return runner.getImage();
+    }
+
+    /**
+     * Returns the durations of the phases of the frames of this session.
+     *
+     * @return the statistics
+     */
+    public FrameStatistics getFrameStatistics() {
+        return runner.getBoard().getFrameStatistics();
+    }
+
+    /**
+     * Returns the number of game updates executed so far.
+     *
+     * @return number of updates
+     */
+    public long getTicks() {
+        return runner.getBoard().getTicks();
+    }
+
+    /**
+     * Returns the real time the session runs or ran.
+     *
+     * @return the time in nano seconds
+     */
+    public long getElapsedTime() {
+        long end = endTime;
+        return ((end != 0L) ? end : System.nanoTime()) - startTime;
+    }
+
+    /**
+     * Returns the exception that terminated the game.
+     *
+     * @return the exception or {@code null} if the game terminated
+     *      normally or is still running
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * Indicates whether the game is over.
+     *
+     * @return {@code true} if the game is over
+     */
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * Stops the game. The game ends with the next frame.
+     */
+    public void stop() {
+        runner.getBoard().stopGame();
+    }
+
+    /**
+     * Waits until the game is over.
+     *
+     * @throws InterruptedException if the thread is interrupted while
+     *      waiting
+     */
+    public void await() throws InterruptedException {
+        done.await();
+    }
+
+    /**
+     * Waits until the game is over or the given time has passed.
+     *
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @return {@code true} if the game is over, {@code false} if the time
+     *      passed
+     * @throws InterruptedException if the thread is interrupted while
+     *      waiting
+     */
+    public boolean await(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    /**
+     * Mark the session as finished.
+     *
+     * @param cause exception that terminated the game or {@code null}
+     */
+    void finish(Throwable cause) {
+        failure = cause;
+        endTime = System.nanoTime();
+        done.countDown();
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format("Session %d: %d ticks, %.1f s%s",
+                id, getTicks(),
+                (double) getElapsedTime() / Constants.NANOSECONDS_PER_SECOND,
+                isDone() ? ", done" : "");
+    }
+}
@@ -0,0 +1,177 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of durations in nano seconds. The values are counted in
+ * buckets whose width grows with the value, so that each bucket has a
+ * relative width of about 3%. Recording a value is cheap and does not
+ * allocate any memory.
+ * <p>
+ * The histogram is not synchronized. It is written by one thread and may
+ * be read by other threads, in which case the results are approximate.
+ */
+public class Histogram {
+
+    /** Number of bits used for the buckets inside one power of two. */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /** Number of buckets inside one power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Largest value stored exactly in its own bucket. */
+    private static final long LINEAR_LIMIT = SUB_BUCKETS * 2;
+
+    /** Largest value that can be recorded, larger values are truncated. */
+    private static final long MAX_VALUE = (1L << 40) - 1;
+
+    /** The buckets. */
+    private final long[] counts = new long[index(MAX_VALUE) + 1];
+
+    /** Number of recorded values. */
+    private long count;
+
+    /** Sum of all recorded values. */
+    private long sum;
+
+    /** Largest recorded value. */
+    private long max;
+
+    /** Last recorded value. */
+    private long last;
+
+    /**
+     * Record a value.
+     *
+     * @param value the value in nano seconds
+     */
+    public void record(long value) {
+
+        long v = Math.max(0L, Math.min(value, MAX_VALUE));
+
+        counts[index(v)]++;
+        count++;
+        sum += v;
+        last = v;
+
+        if (v > max) {
+            max = v;
+        }
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the maximum in nano seconds
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the last recorded value.
+     *
+     * @return the last value in nano seconds
+     */
+    public long getLast() {
+        return last;
+    }
+
+    /**
+     * Returns the mean of all recorded values.
+     *
+     * @return the mean in nano seconds or 0 if no values were recorded
+     */
+    public double getMean() {
+        return (count == 0) ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of all
+     * recorded values lie, e.g. {@code getPercentile(99.0)} for the 99th
+     * percentile. The result is the upper limit of the bucket containing
+     * the percentile.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the value in nano seconds or 0 if no values were recorded
+     */
+    public long getPercentile(double percentile) {
+
+        long total = count;
+
+        if (total == 0) {
+            return 0L;
+        }
+
+        long rank = (long) Math.ceil(
+                Math.max(0.0, Math.min(percentile, 100.0)) / 100.0 * total);
+        rank = Math.max(rank, 1L);
+
+        long seen = 0L;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperLimit(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    /**
+     * Remove all recorded values.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        count = 0;
+        sum = 0;
+        max = 0;
+        last = 0;
+    }
+
+    /**
+     * Calculate the bucket of a value.
+     *
+     * @param value the value
+     * @return index of the bucket
+     */
+    private static int index(long value) {
+
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Calculate the largest value stored in the given bucket.
+     *
+     * @param index index of the bucket
+     * @return the largest value
+     */
+    private static long upperLimit(int index) {
+
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index - (long) shift * SUB_BUCKETS;
+
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
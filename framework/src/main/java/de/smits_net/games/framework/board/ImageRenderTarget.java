@@ -0,0 +1,104 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.util.List;
+
+/**
+ * Render target drawing into an image created by the board component.
+ * The image is copied to the screen using the graphics context of the
+ * board.
+ */
+class ImageRenderTarget implements RenderTarget {
+
+    /** The board we are rendering for. */
+    private final Board board;
+
+    /** The image the game is drawn on. */
+    private Image image;
+
+    /** The image still contains the previous frame. */
+    private boolean preserved;
+
+    /**
+     * Create a new target.
+     *
+     * @param board the board we are rendering for
+     */
+    ImageRenderTarget(Board board) {
+        this.board = board;
+    }
+
+    /**
+     * @see RenderTarget#beginRendering()
+     */
+    @Override
+    public Graphics beginRendering() {
+
+        // We use double buffering. This means that we do not draw on
+        // the screen directly but into an image that is eventually
+        // blitted to screen in one step. Therefore, we need an image
+        // as the target of our drawing operations.
+        preserved = (image != null);
+
+        if (image == null) {
+            image = board.createImage(board.getWidth(), board.getHeight());
+            if (image == null) {
+                return null;
+            }
+        }
+
+        return image.getGraphics();
+    }
+
+    /**
+     * @see RenderTarget#finishRendering(Graphics)
+     */
+    @Override
+    public boolean finishRendering(Graphics g) {
+        g.dispose();
+        return true;
+    }
+
+    /**
+     * @see RenderTarget#show()
+     */
+    @Override
+    public void show() {
+        Graphics g = board.getGraphics();
+        if ((g != null) && (image != null)) {
+            g.drawImage(image, 0, 0, null);
+            g.dispose();
+        }
+
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    /**
+     * @see RenderTarget#show(List)
+     */
+    @Override
+    public void show(List<Rectangle> regions) {
+        Graphics g = board.getGraphics();
+        if ((g != null) && (image != null)) {
+            for (Rectangle r : regions) {
+                g.drawImage(image, r.x, r.y, r.x + r.width, r.y + r.height,
+                        r.x, r.y, r.x + r.width, r.y + r.height, null);
+            }
+            g.dispose();
+        }
+
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    /**
+     * @see RenderTarget#isContentPreserved()
+     */
+    @Override
+    public boolean isContentPreserved() {
+        return preserved;
+    }
+}
@@ -0,0 +1,237 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.awt.Point;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.util.BitSet;
+
+/**
+ * State of keyboard and mouse as seen by the current update of the game.
+ * Instead of registering listeners, game objects can query this object
+ * during {@link Board#updateGame()}, e.g. in the {@code move()} method of
+ * a sprite:
+ *
+ * <pre>
+ * InputState input = board.getInput();
+ *
+ * if (input.isKeyDown(KeyEvent.VK_LEFT)) {
+ *     velocity.x = -SPEED;
+ * }
+ *
+ * if (input.isKeyPressed(KeyEvent.VK_SPACE)) {
+ *     fire();
+ * }
+ * </pre>
+ * <p>
+ * The state is updated by the game thread once before each update of the
+ * game from the events received since the last update. Therefore, it does
+ * not change while the game is updated.
+ */
+public class InputState {
+
+    /** Keys currently held down. */
+    private final BitSet keysDown = new BitSet();
+
+    /** Keys pressed since the last update. */
+    private final BitSet keysPressed = new BitSet();
+
+    /** Keys released since the last update. */
+    private final BitSet keysReleased = new BitSet();
+
+    /** Mouse buttons currently held down. */
+    private final BitSet buttonsDown = new BitSet();
+
+    /** Mouse buttons pressed since the last update. */
+    private final BitSet buttonsPressed = new BitSet();
+
+    /** Mouse buttons released since the last update. */
+    private final BitSet buttonsReleased = new BitSet();
+
+    /** Last known x position of the mouse. */
+    private int mouseX;
+
+    /** Last known y position of the mouse. */
+    private int mouseY;
+
+    /** Indicates whether the mouse is inside the board. */
+    private boolean mouseInside;
+
+    /**
+     * Checks whether the given key is held down.
+     *
+     * @param keyCode code of the key, e.g. {@link KeyEvent#VK_LEFT}
+     * @return {@code true} if the key is down, otherwise {@code false}
+     */
+    public boolean isKeyDown(int keyCode) {
+        return keysDown.get(keyCode);
+    }
+
+    /**
+     * Checks whether the given key was pressed since the last update.
+     * Repeated key events of a key that is held down are ignored.
+     *
+     * @param keyCode code of the key, e.g. {@link KeyEvent#VK_SPACE}
+     * @return {@code true} if the key was pressed, otherwise {@code false}
+     */
+    public boolean isKeyPressed(int keyCode) {
+        return keysPressed.get(keyCode);
+    }
+
+    /**
+     * Checks whether the given key was released since the last update.
+     *
+     * @param keyCode code of the key, e.g. {@link KeyEvent#VK_SPACE}
+     * @return {@code true} if the key was released, otherwise {@code false}
+     */
+    public boolean isKeyReleased(int keyCode) {
+        return keysReleased.get(keyCode);
+    }
+
+    /**
+     * Checks whether the given mouse button is held down.
+     *
+     * @param button the button, e.g. {@link MouseEvent#BUTTON1}
+     * @return {@code true} if the button is down, otherwise {@code false}
+     */
+    public boolean isButtonDown(int button) {
+        return buttonsDown.get(button);
+    }
+
+    /**
+     * Checks whether the given mouse button was pressed since the last
+     * update.
+     *
+     * @param button the button, e.g. {@link MouseEvent#BUTTON1}
+     * @return {@code true} if the button was pressed, otherwise
+     *      {@code false}
+     */
+    public boolean isButtonPressed(int button) {
+        return buttonsPressed.get(button);
+    }
+
+    /**
+     * Checks whether the given mouse button was released since the last
+     * update.
+     *
+     * @param button the button, e.g. {@link MouseEvent#BUTTON1}
+     * @return {@code true} if the button was released, otherwise
+     *      {@code false}
+     */
+    public boolean isButtonReleased(int button) {
+        return buttonsReleased.get(button);
+    }
+
+    /**
+     * Returns the last known x position of the mouse.
+     *
+     * @return x position in pixel
+     */
+    public int getMouseX() {
+        return mouseX;
+    }
+
+    /**
+     * Returns the last known y position of the mouse.
+     *
+     * @return y position in pixel
+     */
+    public int getMouseY() {
+        return mouseY;
+    }
+
+    /**
+     * Returns the last known position of the mouse.
+     *
+     * @return the position
+     */
+    public Point getMousePosition() {
+        return new Point(mouseX, mouseY);
+    }
+
+    /**
+     * Checks whether the mouse is inside the board.
+     *
+     * @return {@code true} if the mouse is inside, otherwise {@code false}
+     */
+    public boolean isMouseInside() {
+        return mouseInside;
+    }
+
+    /**
+     * Start a new update of the game. Forgets the keys and buttons
+     * pressed and released before.
+     */
+    void beginTick() {
+        keysPressed.clear();
+        keysReleased.clear();
+        buttonsPressed.clear();
+        buttonsReleased.clear();
+    }
+
+    /**
+     * Update the state with the given key event.
+     *
+     * @param e the event
+     */
+    void keyEvent(KeyEvent e) {
+
+        int keyCode = e.getKeyCode();
+
+        if (e.getID() == KeyEvent.KEY_PRESSED) {
+            if (!keysDown.get(keyCode)) {
+                keysPressed.set(keyCode);
+            }
+            keysDown.set(keyCode);
+        }
+        else if (e.getID() == KeyEvent.KEY_RELEASED) {
+            keysDown.clear(keyCode);
+            keysReleased.set(keyCode);
+        }
+    }
+
+    /**
+     * Update the state with the given mouse event.
+     *
+     * @param e the event
+     */
+    void mouseEvent(MouseEvent e) {
+
+        mouseX = e.getX();
+        mouseY = e.getY();
+
+        int button = e.getButton();
+
+        switch (e.getID()) {
+            case MouseEvent.MOUSE_PRESSED:
+                if (!buttonsDown.get(button)) {
+                    buttonsPressed.set(button);
+                }
+                buttonsDown.set(button);
+                break;
+            case MouseEvent.MOUSE_RELEASED:
+                buttonsDown.clear(button);
+                buttonsReleased.set(button);
+                break;
+            case MouseEvent.MOUSE_ENTERED:
+                mouseInside = true;
+                break;
+            case MouseEvent.MOUSE_EXITED:
+                mouseInside = false;
+                break;
+            default:
+                // do nothing
+        }
+    }
+
+    /**
+     * Update the position of the mouse.
+     *
+     * @param x x position in pixel
+     * @param y y position in pixel
+     */
+    void mouseMoved(int x, int y) {
+        mouseX = x;
+        mouseY = y;
+    }
+}
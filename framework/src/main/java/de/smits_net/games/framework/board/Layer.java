@@ -0,0 +1,320 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import de.smits_net.games.framework.image.Drawable;
+import de.smits_net.games.framework.image.ImageBase;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A layer of a {@link Board} holding sprites, images or anything else
+ * that can draw itself. The board draws its layers ordered by their
+ * z-order, layers with a lower z-order are drawn first:
+ * <ul>
+ *     <li>layers with a negative z-order belong to the background and are
+ *     drawn after {@link Board#drawBackground(Graphics)},</li>
+ *     <li>all other layers are drawn after
+ *     {@link Board#drawGame(Graphics, double)}.</li>
+ * </ul>
+ * <p>
+ * A layer whose content does not change can be marked as static. Its
+ * content is drawn once into an image and later frames only copy this
+ * image. If the content changes, the layer has to be invalidated with
+ * {@link Layer#invalidate()} to draw it again. If the content covers every
+ * pixel of the board, the image is stored without alpha channel, so that
+ * copying it is as cheap as possible. The image of a static layer in front
+ * of the background holds the part of the world shown by the
+ * {@link Camera}, it is drawn again whenever the camera moved.
+ * <p>
+ * The content is drawn by the game thread. It can be changed by any thread.
+ */
+public class Layer {
+
+    /** Position of the layer in the drawing order. */
+    private final int zOrder;
+
+    /** The content of the layer. */
+    private final List<Drawable> content = new CopyOnWriteArrayList<>();
+
+    /** The content is drawn only once. */
+    private volatile boolean staticContent;
+
+    /** The layer is drawn. */
+    private volatile boolean visible = true;
+
+    /** The cached image of a static layer has to be drawn again. */
+    private volatile boolean invalid = true;
+
+    /** Board the layer belongs to, {@code null} if none. */
+    private volatile Board board;
+
+    /** Image of the content of a static layer. */
+    private BufferedImage cache;
+
+    /** x coordinate the upper left corner of the image is drawn at. */
+    private int cacheX;
+
+    /** y coordinate the upper left corner of the image is drawn at. */
+    private int cacheY;
+
+    /**
+     * Create a new layer.
+     *
+     * @param zOrder position of the layer in the drawing order, negative
+     *               values put the layer into the background
+     */
+    public Layer(int zOrder) {
+        this.zOrder = zOrder;
+    }
+
+    /**
+     * Returns the position of the layer in the drawing order.
+     *
+     * @return the z-order
+     */
+    public int getZOrder() {
+        return zOrder;
+    }
+
+    /**
+     * Adds an object to the layer. Objects added later are drawn on top of
+     * the objects added before.
+     *
+     * @param drawable the object
+     */
+    public void add(Drawable drawable) {
+        content.add(drawable);
+        invalidate();
+    }
+
+    /**
+     * Removes an object from the layer.
+     *
+     * @param drawable the object
+     */
+    public void remove(Drawable drawable) {
+        content.remove(drawable);
+        invalidate();
+    }
+
+    /**
+     * Removes all objects from the layer.
+     */
+    public void clear() {
+        content.clear();
+        invalidate();
+    }
+
+    /**
+     * Returns the objects of the layer.
+     *
+     * @return the objects, the list cannot be modified
+     */
+    public List<Drawable> getContent() {
+        return List.copyOf(content);
+    }
+
+    /**
+     * Marks the layer as static, i.e. its content is drawn once into an
+     * image which is used for the following frames.
+     *
+     * @param staticContent {@code true} if the content does not change
+     */
+    public void setStatic(boolean staticContent) {
+        this.staticContent = staticContent;
+        invalidate();
+    }
+
+    /**
+     * Indicates whether the layer is static.
+     *
+     * @return {@code true} if the content is drawn only once
+     */
+    public boolean isStatic() {
+        return staticContent;
+    }
+
+    /**
+     * Shows or hides the layer.
+     *
+     * @param visible {@code true} to draw the layer
+     */
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+        invalidate();
+    }
+
+    /**
+     * Indicates whether the layer is drawn.
+     *
+     * @return {@code true} if the layer is drawn
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Requests to draw the content of the layer again, e.g. because the
+     * content of a static layer changed. If the board draws only the
+     * changed regions, the next frame is drawn completely.
+     */
+    public void invalidate() {
+        invalid = true;
+
+        Board b = board;
+
+        if (b != null) {
+            b.markAllDirty();
+        }
+    }
+
+    /**
+     * Sets the board the layer belongs to.
+     *
+     * @param board the board or {@code null} if the layer was removed
+     */
+    void setBoard(Board board) {
+        this.board = board;
+        invalidate();
+    }
+
+    /**
+     * Returns the board the layer belongs to.
+     *
+     * @return the board or {@code null} if none
+     */
+    Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Indicates whether the layer hides everything drawn before, i.e.
+     * whether it is a static layer covering every pixel of the board.
+     *
+     * @return {@code true} if the layer hides the layers below
+     */
+    boolean isOpaque() {
+
+        Board b = board;
+
+        if (!visible || !staticContent || (b == null)) {
+            return false;
+        }
+
+        validate(b);
+
+        return cache.getTransparency() == Transparency.OPAQUE;
+    }
+
+    /**
+     * Draw the layer.
+     *
+     * @param g the graphics context
+     * @param alpha interpolation factor passed to the content
+     */
+    void draw(Graphics g, double alpha) {
+
+        Board b = board;
+
+        if (!visible || (b == null)) {
+            return;
+        }
+
+        if (!staticContent) {
+            cache = null;
+
+            for (Drawable d : content) {
+                d.draw(g, b, alpha);
+            }
+
+            return;
+        }
+
+        validate(b);
+        g.drawImage(cache, cacheX, cacheY, null);
+    }
+
+    /**
+     * Draw the content of a static layer into its image if the image is
+     * missing or invalid.
+     *
+     * @param b the board
+     */
+    private void validate(Board b) {
+
+        // in front of the background, the image shows the viewport
+        int x = b.getWorldX();
+        int y = b.getWorldY();
+
+        if (invalid || (cache == null) || (x != cacheX) || (y != cacheY)) {
+            invalid = false;
+            cacheX = x;
+            cacheY = y;
+
+            // a new image, the old one may still be drawn by the render
+            // thread in the pipelined mode
+            cache = createCache(b);
+        }
+    }
+
+    /**
+     * Draw the content of the layer into a new image.
+     *
+     * @param b the board
+     * @return the image
+     */
+    private BufferedImage createCache(Board b) {
+
+        BufferedImage image = new BufferedImage(b.getWidth(), b.getHeight(),
+                BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g = image.createGraphics();
+        g.translate(-cacheX, -cacheY);
+
+        b.drawOffscreen(() -> {
+            for (Drawable d : content) {
+                d.draw(g, b, 1.0);
+            }
+        });
+
+        g.dispose();
+
+        if (!isOpaque(image)) {
+            return image;
+        }
+
+        // no pixel is transparent, copying the image needs no blending
+        BufferedImage opaque = new BufferedImage(image.getWidth(),
+                image.getHeight(), BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D og = opaque.createGraphics();
+        og.drawImage(image, 0, 0, null);
+        og.dispose();
+
+        return opaque;
+    }
+
+    /**
+     * Checks whether all pixels of an image are opaque.
+     *
+     * @param image the image
+     * @return {@code true} if no pixel is transparent
+     */
+    private static boolean isOpaque(BufferedImage image) {
+
+        return ImageBase.forEachRow(image, (y, row) -> {
+            for (int pixel : row) {
+                if ((pixel >>> 24) != 0xff) {
+                    return false;
+                }
+            }
+
+            return true;
+        });
+    }
+}
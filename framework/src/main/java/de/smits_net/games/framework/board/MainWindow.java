@@ -3,6 +3,14 @@ package de.smits_net.games.framework.board;
 
 import javax.swing.JFrame;
 import javax.swing.WindowConstants;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
 /**
  * Main Window of the game. The games will subclass it to produce
@@ -31,6 +39,11 @@ import javax.swing.WindowConstants;
  *     }
  * }
  * </pre>
+ * <p>
+ * While the window is iconified, hidden or moved off all screens, the
+ * board is suspended (see
+ * {@link Board#setSuspendPolicy(Board.SuspendPolicy)}). A window covered
+ * by other windows is not detected, AWT does not report it.
  *
  * @author Thomas Smits
  */
@@ -39,6 +52,12 @@ public class MainWindow {
     /** The window */
     protected JFrame frame;
 
+    /** The board displayed in the window. */
+    private final Board board;
+
+    /** The window is iconified. */
+    private boolean iconified;
+
     /**
      * Create a new object.
      *
@@ -46,6 +65,7 @@ public class MainWindow {
      * @param board Board to be displayed
      */
     public MainWindow(String title, Board board) {
+        this.board = board;
         frame = new JFrame(title);
         frame.getContentPane().add(board);
 
@@ -54,6 +74,85 @@ public class MainWindow {
 
         frame.setLocationRelativeTo(null);
         frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowIconified(WindowEvent e) {
+                iconified = true;
+                updateHidden();
+            }
+
+            @Override
+            public void windowDeiconified(WindowEvent e) {
+                iconified = false;
+                updateHidden();
+            }
+
+            @Override
+            public void windowActivated(WindowEvent e) {
+                board.setWindowInactive(false);
+            }
+
+            @Override
+            public void windowDeactivated(WindowEvent e) {
+                board.setWindowInactive(true);
+            }
+        });
+
+        frame.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                updateHidden();
+            }
+
+            @Override
+            public void componentHidden(ComponentEvent e) {
+                updateHidden();
+            }
+
+            @Override
+            public void componentMoved(ComponentEvent e) {
+                updateHidden();
+            }
+        });
+
+        // e.g. the board was removed from the window
+        board.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                updateHidden();
+            }
+        });
+
         frame.setVisible(true);
     }
+
+    /**
+     * Tell the board whether it can be seen. Called by the event dispatch
+     * thread whenever the window changed.
+     */
+    private void updateHidden() {
+        board.setWindowHidden(iconified || !board.isShowing()
+                || !isOnScreen());
+    }
+
+    /**
+     * Checks whether a part of the window lies on one of the screens.
+     *
+     * @return {@code false} if the window was moved off all screens
+     */
+    private boolean isOnScreen() {
+
+        Rectangle bounds = frame.getBounds();
+        GraphicsEnvironment ge =
+                GraphicsEnvironment.getLocalGraphicsEnvironment();
+
+        for (GraphicsDevice device : ge.getScreenDevices()) {
+            if (device.getDefaultConfiguration().getBounds()
+                    .intersects(bounds)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
 }
@@ -0,0 +1,58 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+/**
+ * Render target drawing into an image that is never shown on a screen.
+ * If no image is given, nothing is drawn at all.
+ */
+class OffscreenRenderTarget implements RenderTarget {
+
+    /** The image the game is drawn on, {@code null} to skip drawing. */
+    private final BufferedImage image;
+
+    /**
+     * Create a new target.
+     *
+     * @param image the image the game is drawn on or {@code null} if
+     *              the game should not be drawn
+     */
+    OffscreenRenderTarget(BufferedImage image) {
+        this.image = image;
+    }
+
+    /**
+     * @see RenderTarget#beginRendering()
+     */
+    @Override
+    public Graphics beginRendering() {
+        return (image != null) ? image.createGraphics() : null;
+    }
+
+    /**
+     * @see RenderTarget#finishRendering(Graphics)
+     */
+    @Override
+    public boolean finishRendering(Graphics g) {
+        g.dispose();
+        return true;
+    }
+
+    /**
+     * @see RenderTarget#show()
+     */
+    @Override
+    public void show() {
+        // nothing to show
+    }
+
+    /**
+     * @see RenderTarget#isContentPreserved()
+     */
+    @Override
+    public boolean isContentPreserved() {
+        return true;
+    }
+}
@@ -0,0 +1,166 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clock following the real time of the system.
+ * <p>
+ * The operating system wakes up a sleeping thread only with the resolution
+ * of its timer, therefore, a thread usually sleeps longer than requested.
+ * To hit the end of the requested time within a few micro seconds, this
+ * clock parks the thread only for the bulk of the time and busy-waits for
+ * the rest. The time spent busy-waiting (the spin threshold) adapts to the
+ * oversleep measured on the machine: it grows quickly if the thread wakes
+ * up too late and shrinks slowly while the wake-ups are accurate.
+ * <p>
+ * Busy-waiting costs CPU time. It can be switched off, e.g. if many games
+ * run in parallel on virtual threads, where a spinning thread blocks its
+ * carrier thread.
+ * <p>
+ * The adaptation of the spin threshold is not thread safe, an instance
+ * should only be used by one game loop.
+ */
+public class RealTimeClock implements GameClock {
+
+    /** Spin threshold used before any oversleep has been measured. */
+    private static final long INITIAL_SPIN_THRESHOLD = 1_000_000L;
+
+    /** Lower bound for the spin threshold. */
+    private static final long MIN_SPIN_THRESHOLD = 50_000L;
+
+    /** Upper bound for the spin threshold. */
+    private static final long MAX_SPIN_THRESHOLD = 4_000_000L;
+
+    /** Shift giving the speed the spin threshold shrinks with (1/16). */
+    private static final int DECAY_SHIFT = 4;
+
+    /** Use busy-waiting for the end of the sleep time. */
+    private volatile boolean spinning;
+
+    /** Time at the end of a sleep that is spent busy-waiting. */
+    private long spinThreshold = INITIAL_SPIN_THRESHOLD;
+
+    /**
+     * Create a new clock that uses busy-waiting for the end of the sleep
+     * time.
+     */
+    public RealTimeClock() {
+        this(true);
+    }
+
+    /**
+     * Create a new clock.
+     *
+     * @param spinning {@code true} to busy-wait for the end of the sleep
+     *      time, {@code false} to only park the thread
+     */
+    public RealTimeClock(boolean spinning) {
+        this.spinning = spinning;
+    }
+
+    /**
+     * @see GameClock#setSpinning(boolean)
+     */
+    @Override
+    public void setSpinning(boolean spinning) {
+        this.spinning = spinning;
+    }
+
+    /**
+     * @see GameClock#isSpinning()
+     */
+    @Override
+    public boolean isSpinning() {
+        return spinning;
+    }
+
+    /**
+     * Returns the current spin threshold.
+     *
+     * @return the time at the end of a sleep that is spent busy-waiting
+     *      in nano seconds
+     */
+    public long getSpinThreshold() {
+        return spinThreshold;
+    }
+
+    /**
+     * @see GameClock#nanoTime()
+     */
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * @see GameClock#sleep(long)
+     */
+    @Override
+    public void sleep(long nanos) throws InterruptedException {
+
+        if (nanos <= 0) {
+            Thread.yield();
+            return;
+        }
+
+        long deadline = System.nanoTime() + nanos;
+        boolean spin = spinning;
+
+        // park for the bulk of the time
+        long parkDeadline = spin ? deadline - spinThreshold : deadline;
+        long parkTime = parkDeadline - System.nanoTime();
+
+        if (parkTime > 0) {
+
+            // parkNanos may return early, therefore, park until the
+            // deadline is reached
+            while (parkTime > 0) {
+                LockSupport.parkNanos(this, parkTime);
+
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+
+                parkTime = parkDeadline - System.nanoTime();
+            }
+
+            if (spin) {
+                adaptSpinThreshold(-parkTime);
+            }
+        }
+
+        // spin for the rest of the time
+        if (spin) {
+            while (System.nanoTime() - deadline < 0) {
+                Thread.onSpinWait();
+            }
+        }
+
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Adapt the spin threshold to the measured oversleep. The threshold
+     * follows an increasing oversleep immediately and decreases slowly.
+     *
+     * @param overSleep the time the thread woke up too late
+     */
+    private void adaptSpinThreshold(long overSleep) {
+
+        // leave some headroom above the measured value
+        long target = overSleep + (overSleep >> 1);
+
+        if (target > spinThreshold) {
+            spinThreshold = target;
+        }
+        else {
+            spinThreshold -= (spinThreshold - target) >> DECAY_SHIFT;
+        }
+
+        spinThreshold = Math.max(MIN_SPIN_THRESHOLD,
+                Math.min(MAX_SPIN_THRESHOLD, spinThreshold));
+    }
+}
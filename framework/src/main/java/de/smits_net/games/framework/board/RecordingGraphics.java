@@ -0,0 +1,444 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.image.ImageObserver;
+import java.text.AttributedCharacterIterator;
+import java.text.AttributedString;
+import java.util.Arrays;
+
+/**
+ * Graphics context that records the drawing operations into a
+ * {@link RenderList} instead of executing them. The state of the context
+ * (color, font, clip and translation) is tracked, so that the getters
+ * return the same values as a real graphics context would.
+ */
+final class RecordingGraphics extends Graphics {
+
+    /** The list the operations are recorded into. */
+    private final RenderList list;
+
+    /** Number of this graphics context in the list. */
+    private final int context;
+
+    /** Current color. */
+    private Color color;
+
+    /** Current font. */
+    private Font font;
+
+    /** Current clip in the translated coordinates, may be {@code null}. */
+    private Shape clip;
+
+    /**
+     * Create a new root context. The initial color and font are taken from
+     * the component of the list.
+     *
+     * @param list the list to record into
+     * @param context number of the context in the list
+     */
+    RecordingGraphics(RenderList list, int context) {
+        this.list = list;
+        this.context = context;
+
+        Color initialColor = list.getComponent().getForeground();
+        Font initialFont = list.getComponent().getFont();
+
+        setColor(initialColor != null ? initialColor : Color.BLACK);
+
+        if (initialFont != null) {
+            setFont(initialFont);
+        }
+    }
+
+    /**
+     * Create a new context with the state of the given one.
+     *
+     * @param parent the context to copy the state from
+     */
+    private RecordingGraphics(RecordingGraphics parent) {
+        this.list = parent.list;
+        this.context = list.createContext(parent.context);
+        this.color = parent.color;
+        this.font = parent.font;
+        this.clip = parent.clip;
+    }
+
+    /**
+     * Record an operation.
+     *
+     * @param command the operation
+     */
+    private void record(RenderList.Command command) {
+        list.add(context, command);
+    }
+
+    /**
+     * @see Graphics#create()
+     */
+    @Override
+    public Graphics create() {
+        return new RecordingGraphics(this);
+    }
+
+    /**
+     * @see Graphics#translate(int, int)
+     */
+    @Override
+    public void translate(int x, int y) {
+
+        if (clip instanceof Rectangle) {
+            Rectangle r = new Rectangle((Rectangle) clip);
+            r.translate(-x, -y);
+            clip = r;
+        }
+        else if (clip != null) {
+            clip = AffineTransform.getTranslateInstance(-x, -y)
+                    .createTransformedShape(clip);
+        }
+
+        record(g -> g.translate(x, y));
+    }
+
+    /**
+     * @see Graphics#getColor()
+     */
+    @Override
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * @see Graphics#setColor(Color)
+     */
+    @Override
+    public void setColor(Color c) {
+
+        if (c == null) {
+            // ignored like by the graphics contexts of the JDK
+            return;
+        }
+
+        color = c;
+        record(g -> g.setColor(c));
+    }
+
+    /**
+     * @see Graphics#setPaintMode()
+     */
+    @Override
+    public void setPaintMode() {
+        record(Graphics::setPaintMode);
+    }
+
+    /**
+     * @see Graphics#setXORMode(Color)
+     */
+    @Override
+    public void setXORMode(Color c1) {
+        record(g -> g.setXORMode(c1));
+    }
+
+    /**
+     * @see Graphics#getFont()
+     */
+    @Override
+    public Font getFont() {
+        return font;
+    }
+
+    /**
+     * @see Graphics#setFont(Font)
+     */
+    @Override
+    public void setFont(Font f) {
+
+        if (f == null) {
+            return;
+        }
+
+        font = f;
+        record(g -> g.setFont(f));
+    }
+
+    /**
+     * @see Graphics#getFontMetrics(Font)
+     */
+    @Override
+    public FontMetrics getFontMetrics(Font f) {
+        return list.getComponent().getFontMetrics(f);
+    }
+
+    /**
+     * @see Graphics#getClipBounds()
+     */
+    @Override
+    public Rectangle getClipBounds() {
+        return (clip != null) ? clip.getBounds() : null;
+    }
+
+    /**
+     * @see Graphics#clipRect(int, int, int, int)
+     */
+    @Override
+    public void clipRect(int x, int y, int width, int height) {
+
+        Rectangle r = new Rectangle(x, y, width, height);
+        clip = (clip != null) ? clip.getBounds().intersection(r) : r;
+
+        record(g -> g.clipRect(x, y, width, height));
+    }
+
+    /**
+     * @see Graphics#setClip(int, int, int, int)
+     */
+    @Override
+    public void setClip(int x, int y, int width, int height) {
+        clip = new Rectangle(x, y, width, height);
+        record(g -> g.setClip(x, y, width, height));
+    }
+
+    /**
+     * @see Graphics#getClip()
+     */
+    @Override
+    public Shape getClip() {
+        return clip;
+    }
+
+    /**
+     * @see Graphics#setClip(Shape)
+     */
+    @Override
+    public void setClip(Shape clip) {
+        this.clip = clip;
+        record(g -> g.setClip(clip));
+    }
+
+    /**
+     * @see Graphics#copyArea(int, int, int, int, int, int)
+     */
+    @Override
+    public void copyArea(int x, int y, int width, int height,
+                         int dx, int dy) {
+        record(g -> g.copyArea(x, y, width, height, dx, dy));
+    }
+
+    /**
+     * @see Graphics#drawLine(int, int, int, int)
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        record(g -> g.drawLine(x1, y1, x2, y2));
+    }
+
+    /**
+     * @see Graphics#drawRect(int, int, int, int)
+     */
+    @Override
+    public void drawRect(int x, int y, int width, int height) {
+        record(g -> g.drawRect(x, y, width, height));
+    }
+
+    /**
+     * @see Graphics#fillRect(int, int, int, int)
+     */
+    @Override
+    public void fillRect(int x, int y, int width, int height) {
+        record(g -> g.fillRect(x, y, width, height));
+    }
+
+    /**
+     * @see Graphics#clearRect(int, int, int, int)
+     */
+    @Override
+    public void clearRect(int x, int y, int width, int height) {
+        record(g -> g.clearRect(x, y, width, height));
+    }
+
+    /**
+     * @see Graphics#drawRoundRect(int, int, int, int, int, int)
+     */
+    @Override
+    public void drawRoundRect(int x, int y, int width, int height,
+                              int arcWidth, int arcHeight) {
+        record(g -> g.drawRoundRect(x, y, width, height,
+                arcWidth, arcHeight));
+    }
+
+    /**
+     * @see Graphics#fillRoundRect(int, int, int, int, int, int)
+     */
+    @Override
+    public void fillRoundRect(int x, int y, int width, int height,
+                              int arcWidth, int arcHeight) {
+        record(g -> g.fillRoundRect(x, y, width, height,
+                arcWidth, arcHeight));
+    }
+
+    /**
+     * @see Graphics#drawOval(int, int, int, int)
+     */
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        record(g -> g.drawOval(x, y, width, height));
+    }
+
+    /**
+     * @see Graphics#fillOval(int, int, int, int)
+     */
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        record(g -> g.fillOval(x, y, width, height));
+    }
+
+    /**
+     * @see Graphics#drawArc(int, int, int, int, int, int)
+     */
+    @Override
+    public void drawArc(int x, int y, int width, int height,
+                        int startAngle, int arcAngle) {
+        record(g -> g.drawArc(x, y, width, height, startAngle, arcAngle));
+    }
+
+    /**
+     * @see Graphics#fillArc(int, int, int, int, int, int)
+     */
+    @Override
+    public void fillArc(int x, int y, int width, int height,
+                        int startAngle, int arcAngle) {
+        record(g -> g.fillArc(x, y, width, height, startAngle, arcAngle));
+    }
+
+    /**
+     * @see Graphics#drawPolyline(int[], int[], int)
+     */
+    @Override
+    public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints) {
+        int[] xs = Arrays.copyOf(xPoints, nPoints);
+        int[] ys = Arrays.copyOf(yPoints, nPoints);
+        record(g -> g.drawPolyline(xs, ys, nPoints));
+    }
+
+    /**
+     * @see Graphics#drawPolygon(int[], int[], int)
+     */
+    @Override
+    public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+        int[] xs = Arrays.copyOf(xPoints, nPoints);
+        int[] ys = Arrays.copyOf(yPoints, nPoints);
+        record(g -> g.drawPolygon(xs, ys, nPoints));
+    }
+
+    /**
+     * @see Graphics#fillPolygon(int[], int[], int)
+     */
+    @Override
+    public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+        int[] xs = Arrays.copyOf(xPoints, nPoints);
+        int[] ys = Arrays.copyOf(yPoints, nPoints);
+        record(g -> g.fillPolygon(xs, ys, nPoints));
+    }
+
+    /**
+     * @see Graphics#drawString(String, int, int)
+     */
+    @Override
+    public void drawString(String str, int x, int y) {
+        record(g -> g.drawString(str, x, y));
+    }
+
+    /**
+     * @see Graphics#drawString(AttributedCharacterIterator, int, int)
+     */
+    @Override
+    public void drawString(AttributedCharacterIterator iterator,
+                           int x, int y) {
+
+        // the iterator changes its position while drawing, keep a copy
+        AttributedString text = new AttributedString(iterator);
+        record(g -> g.drawString(text.getIterator(), x, y));
+    }
+
+    /**
+     * @see Graphics#drawImage(Image, int, int, ImageObserver)
+     */
+    @Override
+    public boolean drawImage(Image img, int x, int y,
+                             ImageObserver observer) {
+        record(g -> g.drawImage(img, x, y, observer));
+        return true;
+    }
+
+    /**
+     * @see Graphics#drawImage(Image, int, int, int, int, ImageObserver)
+     */
+    @Override
+    public boolean drawImage(Image img, int x, int y, int width, int height,
+                             ImageObserver observer) {
+        record(g -> g.drawImage(img, x, y, width, height, observer));
+        return true;
+    }
+
+    /**
+     * @see Graphics#drawImage(Image, int, int, Color, ImageObserver)
+     */
+    @Override
+    public boolean drawImage(Image img, int x, int y, Color bgcolor,
+                             ImageObserver observer) {
+        record(g -> g.drawImage(img, x, y, bgcolor, observer));
+        return true;
+    }
+
+    /**
+     * @see Graphics#drawImage(Image, int, int, int, int, Color,
+     *      ImageObserver)
+     */
+    @Override
+    public boolean drawImage(Image img, int x, int y, int width, int height,
+                             Color bgcolor, ImageObserver observer) {
+        record(g -> g.drawImage(img, x, y, width, height, bgcolor, observer));
+        return true;
+    }
+
+    /**
+     * @see Graphics#drawImage(Image, int, int, int, int, int, int, int, int,
+     *      ImageObserver)
+     */
+    @Override
+    public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2,
+                             int sx1, int sy1, int sx2, int sy2,
+                             ImageObserver observer) {
+        record(g -> g.drawImage(img, dx1, dy1, dx2, dy2,
+                sx1, sy1, sx2, sy2, observer));
+        return true;
+    }
+
+    /**
+     * @see Graphics#drawImage(Image, int, int, int, int, int, int, int, int,
+     *      Color, ImageObserver)
+     */
+    @Override
+    public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2,
+                             int sx1, int sy1, int sx2, int sy2,
+                             Color bgcolor, ImageObserver observer) {
+        record(g -> g.drawImage(img, dx1, dy1, dx2, dy2,
+                sx1, sy1, sx2, sy2, bgcolor, observer));
+        return true;
+    }
+
+    /**
+     * @see Graphics#dispose()
+     */
+    @Override
+    public void dispose() {
+        // the contexts are disposed after the replay
+    }
+}
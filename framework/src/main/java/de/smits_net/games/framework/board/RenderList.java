@@ -0,0 +1,181 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Recorded drawing operations of one frame. The game thread draws the frame
+ * into the graphics context returned by {@link RenderList#getGraphics()},
+ * which does not draw anything but records the operations. The render
+ * thread then replays them onto the real graphics context.
+ * <p>
+ * The operations contain copies of all mutable arguments (e.g. the
+ * coordinates of polygons). Images are recorded by reference, therefore,
+ * the game must not change the content of an image that has been drawn
+ * until the frame has been replayed.
+ * <p>
+ * The list can be replayed more than once, e.g. if an accelerated render
+ * target lost its content, and reused for the next frame after calling
+ * {@link RenderList#reset()}.
+ */
+final class RenderList {
+
+    /**
+     * A recorded drawing operation.
+     */
+    @FunctionalInterface
+    interface Command {
+
+        /**
+         * Execute the operation.
+         *
+         * @param g the graphics context to draw into
+         */
+        void execute(Graphics g);
+    }
+
+    /** Initial number of graphics contexts per frame. */
+    private static final int INITIAL_CONTEXTS = 4;
+
+    /**
+     * The operations. A {@code null} entry creates the graphics context
+     * given by the corresponding target.
+     */
+    private final List<Command> commands = new ArrayList<>();
+
+    /** Graphics context each operation is executed on. */
+    private int[] targets = new int[64];
+
+    /** Parent of each graphics context created during the frame. */
+    private int[] parents = new int[INITIAL_CONTEXTS];
+
+    /** Number of graphics contexts used in the frame. */
+    private int contexts;
+
+    /** Component used to determine font metrics. */
+    private final Component component;
+
+    /** Root graphics context of the recording. */
+    private RecordingGraphics root;
+
+    /**
+     * Create a new list.
+     *
+     * @param component component used to determine font metrics
+     */
+    RenderList(Component component) {
+        this.component = component;
+        reset();
+    }
+
+    /**
+     * Remove all recorded operations to start a new frame.
+     */
+    void reset() {
+        commands.clear();
+        contexts = 1;
+        root = new RecordingGraphics(this, 0);
+    }
+
+    /**
+     * Returns the graphics context recording the operations.
+     *
+     * @return the graphics context
+     */
+    Graphics getGraphics() {
+        return root;
+    }
+
+    /**
+     * Returns the number of recorded operations.
+     *
+     * @return number of operations
+     */
+    int size() {
+        return commands.size();
+    }
+
+    /**
+     * Returns the component used to determine font metrics.
+     *
+     * @return the component
+     */
+    Component getComponent() {
+        return component;
+    }
+
+    /**
+     * Record an operation.
+     *
+     * @param context graphics context the operation is executed on
+     * @param command the operation
+     */
+    void add(int context, Command command) {
+
+        int index = commands.size();
+
+        if (index == targets.length) {
+            targets = Arrays.copyOf(targets, index * 2);
+        }
+
+        targets[index] = context;
+        commands.add(command);
+    }
+
+    /**
+     * Record the creation of a new graphics context.
+     *
+     * @param parent the graphics context the new one is created from
+     * @return the number of the new graphics context
+     */
+    int createContext(int parent) {
+
+        int context = contexts++;
+
+        if (context == parents.length) {
+            parents = Arrays.copyOf(parents, context * 2);
+        }
+
+        parents[context] = parent;
+        add(context, null);
+
+        return context;
+    }
+
+    /**
+     * Execute the recorded operations.
+     *
+     * @param g the graphics context to draw into
+     */
+    void replay(Graphics g) {
+
+        Graphics[] graphics = new Graphics[contexts];
+        graphics[0] = g;
+
+        try {
+            for (int i = 0; i < commands.size(); i++) {
+
+                Command command = commands.get(i);
+                int target = targets[i];
+
+                if (command == null) {
+                    graphics[target] = graphics[parents[target]].create();
+                }
+                else {
+                    command.execute(graphics[target]);
+                }
+            }
+        }
+        finally {
+            for (int i = 1; i < graphics.length; i++) {
+                if (graphics[i] != null) {
+                    graphics[i].dispose();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.util.concurrent.Exchanger;
+import java.util.function.Consumer;
+
+/**
+ * Pipeline moving the rendering of the frames to a separate thread. The
+ * game thread records frame N+1 into one {@link RenderList} while the
+ * render thread draws frame N from the other one. When both are done, the
+ * lists are swapped.
+ * <p>
+ * Because the render thread only works on recorded operations, it never
+ * accesses the state of the game and no further synchronization is
+ * required. If the render thread is slower than the game thread, the game
+ * thread waits for it when handing over the next frame.
+ */
+final class RenderPipeline {
+
+    /** Hands the recorded frames over to the render thread. */
+    private final Exchanger<RenderList> exchanger = new Exchanger<>();
+
+    /** Draws a recorded frame and brings it to the screen. */
+    private final Consumer<RenderList> renderer;
+
+    /** The render thread. */
+    private final Thread thread;
+
+    /** List recorded by the game thread. */
+    private RenderList recording;
+
+    /**
+     * Create a new pipeline.
+     *
+     * @param component component used to determine font metrics
+     * @param renderer draws a recorded frame, called by the render thread
+     */
+    RenderPipeline(Component component, Consumer<RenderList> renderer) {
+        this.renderer = renderer;
+        this.recording = new RenderList(component);
+
+        RenderList spare = new RenderList(component);
+        thread = new Thread(() -> render(spare), "Render");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Start the render thread.
+     */
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Start recording a new frame.
+     *
+     * @return the graphics context to draw the frame into
+     */
+    Graphics beginFrame() {
+        recording.reset();
+        return recording.getGraphics();
+    }
+
+    /**
+     * Hand the recorded frame over to the render thread. Waits until the
+     * render thread has finished the previous frame.
+     *
+     * @throws InterruptedException if the thread is interrupted while
+     *      waiting
+     */
+    void submitFrame() throws InterruptedException {
+        recording = exchanger.exchange(recording);
+    }
+
+    /**
+     * Stop the render thread after it has drawn the last frame handed
+     * over.
+     */
+    void stop() {
+        try {
+            exchanger.exchange(null);
+            thread.join();
+        }
+        catch (InterruptedException e) {
+            thread.interrupt();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Loop of the render thread.
+     *
+     * @param spare the list handed back to the game thread first
+     */
+    private void render(RenderList spare) {
+
+        RenderList frame = spare;
+
+        try {
+            while ((frame = exchanger.exchange(frame)) != null) {
+                try {
+                    renderer.accept(frame);
+                }
+                catch (RuntimeException e) {
+                    System.err.println("Graphics error: " + e);
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            // game thread gave up, terminate
+        }
+    }
+}
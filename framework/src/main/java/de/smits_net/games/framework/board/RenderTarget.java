@@ -0,0 +1,67 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.util.List;
+
+/**
+ * Target of the rendering of a {@link Board}. The board draws each frame
+ * into the graphics context provided by the target and then asks the
+ * target to bring the frame to the screen.
+ * <p>
+ * Accelerated targets may lose their content at any time (e.g. if the
+ * display mode changes). Therefore, the board repeats the drawing as long
+ * as {@link RenderTarget#finishRendering(Graphics)} reports that the
+ * content was lost.
+ * <p>
+ * Targets that keep the content of the last frame allow the board to draw
+ * and show only the regions that changed.
+ */
+interface RenderTarget {
+
+    /**
+     * Start drawing a new frame.
+     *
+     * @return the graphics context to draw into or {@code null} if the
+     *      target is not ready yet
+     */
+    Graphics beginRendering();
+
+    /**
+     * Finish drawing the frame. The graphics context is disposed by this
+     * method.
+     *
+     * @param g the graphics context returned by
+     *          {@link RenderTarget#beginRendering()}
+     * @return {@code true} if the frame is complete, {@code false} if the
+     *      content was lost and the frame has to be drawn again
+     */
+    boolean finishRendering(Graphics g);
+
+    /**
+     * Bring the last frame to the screen.
+     */
+    void show();
+
+    /**
+     * Bring the given regions of the last frame to the screen. The default
+     * implementation shows the complete frame.
+     *
+     * @param regions the regions to be shown
+     */
+    default void show(List<Rectangle> regions) {
+        show();
+    }
+
+    /**
+     * Indicates whether the graphics context returned by the last call of
+     * {@link RenderTarget#beginRendering()} still contains the previous
+     * frame. The default implementation returns {@code false}.
+     *
+     * @return {@code true} if the previous frame is still present
+     */
+    default boolean isContentPreserved() {
+        return false;
+    }
+}
@@ -0,0 +1,112 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.board;
+
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.image.VolatileImage;
+import java.util.List;
+
+/**
+ * Render target drawing into a {@link VolatileImage}. Volatile images
+ * are stored in the memory of the graphics card, therefore, drawing into
+ * them and copying them to the screen is hardware accelerated.
+ */
+class VolatileImageRenderTarget implements RenderTarget {
+
+    /** The board we are rendering for. */
+    private final Board board;
+
+    /** The image the game is drawn on. */
+    private VolatileImage image;
+
+    /** The image still contains the previous frame. */
+    private boolean preserved;
+
+    /**
+     * Create a new target.
+     *
+     * @param board the board we are rendering for
+     */
+    VolatileImageRenderTarget(Board board) {
+        this.board = board;
+    }
+
+    /**
+     * @see RenderTarget#beginRendering()
+     */
+    @Override
+    public Graphics beginRendering() {
+
+        GraphicsConfiguration gc = board.getGraphicsConfiguration();
+
+        if (gc == null) {
+            // board is not displayed yet
+            return null;
+        }
+
+        // The image has to be validated before each use. If it is not
+        // compatible with the graphics device anymore, it is created again.
+        // If it was restored, the content is drawn again anyway.
+        int state = (image != null)
+                ? image.validate(gc) : VolatileImage.IMAGE_INCOMPATIBLE;
+
+        if (state == VolatileImage.IMAGE_INCOMPATIBLE) {
+            image = gc.createCompatibleVolatileImage(
+                    board.getWidth(), board.getHeight());
+        }
+
+        preserved = (state == VolatileImage.IMAGE_OK);
+
+        return image.createGraphics();
+    }
+
+    /**
+     * @see RenderTarget#finishRendering(Graphics)
+     */
+    @Override
+    public boolean finishRendering(Graphics g) {
+        g.dispose();
+        return !image.contentsLost();
+    }
+
+    /**
+     * @see RenderTarget#show()
+     */
+    @Override
+    public void show() {
+        Graphics g = board.getGraphics();
+        if ((g != null) && (image != null) && !image.contentsLost()) {
+            g.drawImage(image, 0, 0, null);
+            g.dispose();
+        }
+
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    /**
+     * @see RenderTarget#show(List)
+     */
+    @Override
+    public void show(List<Rectangle> regions) {
+        Graphics g = board.getGraphics();
+        if ((g != null) && (image != null) && !image.contentsLost()) {
+            for (Rectangle r : regions) {
+                g.drawImage(image, r.x, r.y, r.x + r.width, r.y + r.height,
+                        r.x, r.y, r.x + r.width, r.y + r.height, null);
+            }
+            g.dispose();
+        }
+
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    /**
+     * @see RenderTarget#isContentPreserved()
+     */
+    @Override
+    public boolean isContentPreserved() {
+        return preserved;
+    }
+}
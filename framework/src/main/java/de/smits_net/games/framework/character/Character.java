@@ -93,6 +93,8 @@ public class Character extends DirectionAnimatedSprite {
     @Override
     public void move() {
 
+        rememberPosition();
+
         // distance to the new point
         double distanceX = Math.round(target.x - position.x);
         double distanceY = Math.round(target.y - position.y);
@@ -16,13 +16,20 @@ import java.net.URL;
  * tracks the time that'd passed since the last draw call and
  * changes the image automatically if the requested animatedImage
  * time has passed.
+ * <p>
+ * The time is passed in by the caller, usually taken from the clock of
+ * the board (see {@link AnimatedImage#draw(Graphics, Point, ImageObserver,
+ * long)}). If no time is given, the system time is used.
  *
  * @author Thomas Smits
  */
 public class AnimatedImage extends ImagePack {
 
+    /** Marker for an animation that has not been drawn yet. */
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
     /** Last change of the sprite. */
-    protected long lastRun = System.nanoTime();
+    protected long lastRun = NOT_STARTED;
 
     /** Time between two frames in milliseconds. */
     protected volatile int time;
@@ -108,15 +115,39 @@ public class AnimatedImage extends ImagePack {
         return time;
     }
 
+    /**
+     * Draw the image at the given position using the system time to
+     * advance the animation.
+     *
+     * @see ImagePack#draw(Graphics, Point, ImageObserver)
+     */
     @Override
     public void draw(Graphics g, Point position, ImageObserver observer) {
+        draw(g, position, observer, System.nanoTime());
+    }
+
+    /**
+     * Draw the image at the given position. If the time one image is shown
+     * has passed, the next image is selected before drawing.
+     *
+     * @param g graphics context
+     * @param position position to draw image at
+     * @param observer image observer
+     * @param now the current time in nano seconds
+     */
+    public void draw(Graphics g, Point position, ImageObserver observer,
+                     long now) {
+
+        if (lastRun == NOT_STARTED) {
+            lastRun = now;
+        }
 
-        long timePassed = (System.nanoTime() - lastRun)
+        long timePassed = (now - lastRun)
                 / Constants.NANOSECONDS_PER_MILLISECOND;
 
         if (timePassed > time) {
             cycle();
-            lastRun = System.nanoTime();
+            lastRun = now;
         }
 
         super.draw(g, position, observer);
@@ -10,7 +10,7 @@ import java.awt.image.ImageObserver;
  *
  * @author Thomas Smits
  */
-public class BackgroundImage {
+public class BackgroundImage implements Drawable {
 
     /** Current scroll position. */
     private double scroll;
@@ -85,4 +85,17 @@ public class BackgroundImage {
         g.drawImage(background, background.getWidth() + (int) scroll,
                 0, observer);
     }
+
+    /**
+     * Draw the background picture. The scroll position is not
+     * interpolated.
+     *
+     * @param g the graphics context to draw into
+     * @param observer the image observer
+     * @param alpha interpolation factor, ignored
+     */
+    @Override
+    public void draw(Graphics g, ImageObserver observer, double alpha) {
+        draw(g, observer);
+    }
 }
@@ -0,0 +1,214 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.image;
+
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The solid pixels of an image, used for pixel perfect collision tests. A
+ * pixel is solid if its alpha value is at least
+ * {@link #ALPHA_THRESHOLD}.
+ * <p>
+ * Every row of the image is stored as bits packed into {@code long} words,
+ * the leftmost pixel in the lowest bit. Two masks are compared by shifting
+ * the words of one mask to the position of the other and combining them
+ * with a bitwise and, i.e. 64 pixels at once.
+ * <p>
+ * Masks are cached per image as long as the image is used, see
+ * {@link #of(BufferedImage)}. The images must not be changed after the mask
+ * was created.
+ */
+public final class CollisionMask {
+
+    /** Minimum alpha value of a solid pixel. */
+    public static final int ALPHA_THRESHOLD = 128;
+
+    /** Masks of the images in use. */
+    private static final Map<BufferedImage, CollisionMask> CACHE
+            = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** Width of the image. */
+    private final int width;
+
+    /** Height of the image. */
+    private final int height;
+
+    /** Number of words per row. */
+    private final int words;
+
+    /** The rows of the mask, one after the other. */
+    private final long[] bits;
+
+    /**
+     * Create the mask of an image.
+     *
+     * @param image the image
+     */
+    public CollisionMask(BufferedImage image) {
+
+        width = image.getWidth();
+        height = image.getHeight();
+        words = (width + 63) >>> 6;
+        bits = new long[words * height];
+
+        ImageBase.forEachRow(image, (y, row) -> {
+            for (int x = 0; x < width; x++) {
+                if ((row[x] >>> 24) >= ALPHA_THRESHOLD) {
+                    bits[y * words + (x >>> 6)] |= 1L << (x & 63);
+                }
+            }
+
+            return true;
+        });
+    }
+
+    /**
+     * Returns the mask of an image, creating it on first use.
+     *
+     * @param image the image
+     * @return the mask
+     */
+    public static CollisionMask of(BufferedImage image) {
+        return CACHE.computeIfAbsent(image, CollisionMask::new);
+    }
+
+    /**
+     * Returns the width of the mask.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the mask.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Checks whether a pixel is solid.
+     *
+     * @param x x coordinate of the pixel
+     * @param y y coordinate of the pixel
+     * @return {@code true} if the pixel is solid, {@code false} if it is
+     *      transparent or outside of the mask
+     */
+    public boolean isSolid(int x, int y) {
+
+        if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+            return false;
+        }
+
+        return (bits[y * words + (x >>> 6)] & (1L << (x & 63))) != 0L;
+    }
+
+    /**
+     * Checks whether a solid pixel of this mask covers a solid pixel of
+     * another mask.
+     *
+     * @param other the other mask
+     * @param dx x position of the other mask relative to this mask
+     * @param dy y position of the other mask relative to this mask
+     * @return {@code true} if the masks overlap
+     */
+    public boolean overlaps(CollisionMask other, int dx, int dy) {
+
+        // the area covered by both masks in the coordinates of this mask
+        int x0 = Math.max(0, dx);
+        int y0 = Math.max(0, dy);
+        int x1 = Math.min(width, dx + other.width);
+        int y1 = Math.min(height, dy + other.height);
+
+        if ((x0 >= x1) || (y0 >= y1)) {
+            return false;
+        }
+
+        int firstWord = x0 >>> 6;
+        int lastWord = (x1 - 1) >>> 6;
+
+        for (int w = firstWord; w <= lastWord; w++) {
+            // the 64 pixels of the other mask at the pixels of word w are
+            // taken from two neighbouring words of the other mask
+            int start = (w << 6) - dx;
+            int low = start >> 6;
+            int shift = start & 63;
+            boolean hasLow = (low >= 0) && (low < other.words);
+            boolean hasHigh = (shift != 0)
+                    && (low + 1 >= 0) && (low + 1 < other.words);
+
+            for (int y = y0; y < y1; y++) {
+                int otherRow = (y - dy) * other.words;
+                long shifted = 0L;
+
+                if (hasLow) {
+                    shifted = other.bits[otherRow + low] >>> shift;
+                }
+
+                if (hasHigh) {
+                    shifted |= other.bits[otherRow + low + 1] << (64 - shift);
+                }
+
+                if ((bits[y * words + w] & shifted) != 0L) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether the mask has a solid pixel inside a rectangle.
+     *
+     * @param x x coordinate of the rectangle
+     * @param y y coordinate of the rectangle
+     * @param w width of the rectangle
+     * @param h height of the rectangle
+     * @return {@code true} if a solid pixel lies inside the rectangle
+     */
+    public boolean overlaps(int x, int y, int w, int h) {
+
+        int x0 = Math.max(0, x);
+        int y0 = Math.max(0, y);
+        int x1 = Math.min(width, x + w);
+        int y1 = Math.min(height, y + h);
+
+        if ((x0 >= x1) || (y0 >= y1)) {
+            return false;
+        }
+
+        int firstWord = x0 >>> 6;
+        int lastWord = (x1 - 1) >>> 6;
+
+        // pixels of the rectangle in the first and last word
+        long firstMask = -1L << (x0 & 63);
+        long lastMask = -1L >>> (63 - ((x1 - 1) & 63));
+
+        for (int row = y0; row < y1; row++) {
+            for (int k = firstWord; k <= lastWord; k++) {
+                long mask = -1L;
+
+                if (k == firstWord) {
+                    mask &= firstMask;
+                }
+
+                if (k == lastWord) {
+                    mask &= lastMask;
+                }
+
+                if ((bits[row * words + k] & mask) != 0L) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.image;
+
+import java.awt.Graphics;
+import java.awt.image.ImageObserver;
+
+/**
+ * Something that can draw itself onto the board, e.g. a sprite, a
+ * collection of sprites or a background image. Drawables are put into the
+ * layers of a board (see {@link de.smits_net.games.framework.board.Layer}).
+ */
+@FunctionalInterface
+public interface Drawable {
+
+    /**
+     * Draw the object.
+     *
+     * @param g the graphics context
+     * @param observer the image observer
+     * @param alpha interpolation factor between 0 (state before the last
+     *              update) and 1 (current state)
+     */
+    void draw(Graphics g, ImageObserver observer, double alpha);
+}
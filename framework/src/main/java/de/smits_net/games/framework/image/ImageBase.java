@@ -1,6 +1,8 @@
 /* (c) 2015 Thomas Smits */
 package de.smits_net.games.framework.image;
 
+import de.smits_net.games.framework.jfr.ImageLoadEvent;
+
 import javax.imageio.ImageIO;
 import java.awt.Dimension;
 import java.awt.Graphics;
@@ -15,8 +17,9 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Base class for images used in the game.
@@ -25,17 +28,59 @@ import java.util.Map;
  */
 public abstract class ImageBase {
 
-    /** Cache for loaded images. */
-    protected static Map<String, BufferedImage> imageCache = new HashMap<>();
+    /**
+     * Receives the pixels of an image row by row, see
+     * {@link ImageBase#forEachRow(BufferedImage, RowVisitor)}.
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+
+        /**
+         * Visit one row of the image.
+         *
+         * @param y y coordinate of the row
+         * @param row ARGB values of the pixels of the row, the array is
+         *            reused for the next row
+         * @return {@code true} to continue with the next row, {@code false}
+         *      to stop
+         */
+        boolean visit(int y, int[] row);
+    }
+
+    /**
+     * Cache for loaded images. Boards running in parallel load their images
+     * from different threads, therefore, the cache has to be thread safe.
+     */
+    protected static final Map<String, BufferedImage> imageCache
+            = new ConcurrentHashMap<>();
+
+    /** Number of images found in the cache. */
+    private static final LongAdder cacheHits = new LongAdder();
 
-    /** The current graphics configuration of the screen we are using. */
-    private static final GraphicsConfiguration gc;
+    /** Number of images that had to be loaded. */
+    private static final LongAdder cacheMisses = new LongAdder();
+
+    /**
+     * The current graphics configuration of the screen we are using or
+     * {@code null} if there is no screen (headless mode).
+     */
+    private static final GraphicsConfiguration gc = defaultConfiguration();
+
+    /**
+     * Determine the graphics configuration of the default screen.
+     *
+     * @return the configuration or {@code null} in headless mode
+     */
+    private static GraphicsConfiguration defaultConfiguration() {
+
+        if (GraphicsEnvironment.isHeadless()) {
+            return null;
+        }
 
-    static {
         // get the graphics environment
         GraphicsEnvironment ge =
                 GraphicsEnvironment.getLocalGraphicsEnvironment();
-        gc = ge.getDefaultScreenDevice().getDefaultConfiguration();
+        return ge.getDefaultScreenDevice().getDefaultConfiguration();
     }
 
     /**
@@ -72,11 +117,22 @@ public abstract class ImageBase {
      */
     public static BufferedImage load(File file) {
 
+        ImageLoadEvent event = new ImageLoadEvent();
+        event.begin();
+
         BufferedImage img = imageCache.get(file.getAbsolutePath());
 
         File fileToLad = file;
 
-        if (img == null) {
+        event.file = file.getPath();
+        event.cacheHit = (img != null);
+
+        if (img != null) {
+            cacheHits.increment();
+        }
+        else {
+            cacheMisses.increment();
+
             try {
 
                 if (!fileToLad.exists()) {
@@ -91,29 +147,70 @@ public abstract class ImageBase {
                     fileToLad = new File(file.getPath() + ".jpg");
                 }
 
+                long beforeDecode = System.nanoTime();
                 img = ImageIO.read(fileToLad);
-                int transparency = img.getColorModel().getTransparency();
+                event.decodeTime = System.nanoTime() - beforeDecode;
+
+                if (gc != null) {
+                    int transparency = img.getColorModel().getTransparency();
 
-                // create an image especially suitable for the graphics
-                // environment
-                BufferedImage newImage = gc.createCompatibleImage(
-                        img.getWidth(), img.getHeight(), transparency);
+                    // create an image especially suitable for the graphics
+                    // environment
+                    BufferedImage newImage = gc.createCompatibleImage(
+                            img.getWidth(), img.getHeight(), transparency);
 
-                Graphics2D g = newImage.createGraphics();
-                g.drawImage(img, 0, 0, null);
-                g.dispose();
+                    Graphics2D g = newImage.createGraphics();
+                    g.drawImage(img, 0, 0, null);
+                    g.dispose();
+                }
             }
             catch (IOException e) {
                 throw new IllegalArgumentException(
                         "File '" + file.getPath() + "' not found.", e);
             }
 
-            imageCache.put(file.getAbsolutePath(), img);
+            // another thread may have loaded the image in the meantime,
+            // all callers get the same instance
+            BufferedImage cached = imageCache.putIfAbsent(
+                    file.getAbsolutePath(), img);
+
+            if (cached != null) {
+                img = cached;
+            }
         }
 
+        event.commit();
+
         return img;
     }
 
+    /**
+     * Returns the number of images in the cache.
+     *
+     * @return number of images
+     */
+    public static int getCacheSize() {
+        return imageCache.size();
+    }
+
+    /**
+     * Returns the number of images found in the cache.
+     *
+     * @return number of hits
+     */
+    public static long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Returns the number of images that had to be loaded.
+     *
+     * @return number of misses
+     */
+    public static long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
     /**
      * Load the image from the class path.
      *
@@ -150,6 +247,32 @@ public abstract class ImageBase {
         return bufferedImage;
     }
 
+    /**
+     * Read the pixels of an image row by row.
+     *
+     * @param image the image
+     * @param visitor receives the rows from top to bottom
+     * @return {@code true} if all rows were visited, {@code false} if the
+     *      visitor stopped early
+     */
+    public static boolean forEachRow(BufferedImage image, RowVisitor visitor) {
+
+        // read row by row, accessing the data buffer directly would
+        // prevent the acceleration of the image
+        int width = image.getWidth();
+        int[] row = new int[width];
+
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+
+            if (!visitor.visit(y, row)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     /**
      * Dimension of the image.
      *
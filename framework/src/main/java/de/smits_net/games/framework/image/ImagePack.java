@@ -139,6 +139,41 @@ public class ImagePack extends ImageBase implements Iterable<BufferedImage> {
         return imageList.size();
     }
 
+    /**
+     * Creates the collision masks of all images now, so that they are not
+     * created in the middle of the game when a sprite is tested for the
+     * first time.
+     *
+     * @return this pack
+     */
+    public ImagePack createCollisionMasks() {
+
+        for (BufferedImage img : imageList) {
+            CollisionMask.of(img);
+        }
+
+        return this;
+    }
+
+    /**
+     * Gets the collision mask of the current image.
+     *
+     * @return the mask
+     */
+    public CollisionMask getCollisionMask() {
+        return CollisionMask.of(getImage());
+    }
+
+    /**
+     * Gets the collision mask of the image at the given position.
+     *
+     * @param index position of the image
+     * @return the mask
+     */
+    public CollisionMask getCollisionMask(int index) {
+        return CollisionMask.of(getImage(index));
+    }
+
     /**
      * @see java.lang.Iterable#iterator()
      */
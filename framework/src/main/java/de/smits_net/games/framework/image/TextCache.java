@@ -0,0 +1,236 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.image;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache for rendered texts. Laying out the glyphs of a text is expensive
+ * compared to copying an image. Texts shown every frame (e.g. the score of
+ * a game) change rarely, therefore, this class renders each text once into
+ * an image and keeps the image as long as the text is used. The least
+ * recently used images are removed if the cache is full.
+ * <p>
+ * The cache also keeps the font metrics of the fonts used.
+ * <p>
+ * The class is not thread safe, it is intended to be used by the thread
+ * drawing the game.
+ */
+public class TextCache {
+
+    /**
+     * Key of a rendered text.
+     */
+    private static final class Key {
+
+        /** The text. */
+        private final String text;
+
+        /** Font of the text. */
+        private final Font font;
+
+        /** Color of the text. */
+        private final Color color;
+
+        /**
+         * Create a new key.
+         *
+         * @param text the text
+         * @param font font of the text
+         * @param color color of the text
+         */
+        Key(String text, Font font, Color color) {
+            this.text = text;
+            this.font = font;
+            this.color = color;
+        }
+
+        /**
+         * @see Object#equals(Object)
+         */
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) o;
+
+            return text.equals(other.text)
+                    && font.equals(other.font)
+                    && color.equals(other.color);
+        }
+
+        /**
+         * @see Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return (text.hashCode() * 31 + font.hashCode()) * 31
+                    + color.hashCode();
+        }
+    }
+
+    /** Image used to determine font metrics. */
+    private final Graphics2D scratch = new BufferedImage(1, 1,
+            BufferedImage.TYPE_INT_ARGB).createGraphics();
+
+    /** Metrics of the fonts used. */
+    private final Map<Font, FontMetrics> metrics = new HashMap<>();
+
+    /** The rendered texts in the order of their last use. */
+    private final Map<Key, BufferedImage> images;
+
+    /** Number of lookups that found an image. */
+    private long hits;
+
+    /** Number of lookups that had to render the text. */
+    private long misses;
+
+    /**
+     * Create a new cache.
+     *
+     * @param capacity maximum number of rendered texts kept
+     */
+    public TextCache(int capacity) {
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "Capacity must be positive: " + capacity);
+        }
+
+        images = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<Key, BufferedImage> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the metrics of a font.
+     *
+     * @param font the font
+     * @return the metrics
+     */
+    public FontMetrics getMetrics(Font font) {
+        return metrics.computeIfAbsent(font, scratch::getFontMetrics);
+    }
+
+    /**
+     * Returns the image of a text. The text is drawn at the base line given
+     * by the ascent of the font, i.e. the image has to be drawn at
+     * {@code y - getMetrics(font).getAscent()} to put the base line at
+     * {@code y}.
+     *
+     * @param text the text
+     * @param font font of the text
+     * @param color color of the text
+     * @return the rendered text
+     */
+    public BufferedImage getImage(String text, Font font, Color color) {
+
+        Key key = new Key(text, font, color);
+        BufferedImage image = images.get(key);
+
+        if (image != null) {
+            hits++;
+            return image;
+        }
+
+        misses++;
+        image = render(text, font, color);
+        images.put(key, image);
+
+        return image;
+    }
+
+    /**
+     * Draw a text using the cached image.
+     *
+     * @param g the graphics context
+     * @param text the text
+     * @param font font of the text
+     * @param color color of the text
+     * @param x x position of the text
+     * @param y y position of the base line of the text
+     */
+    public void draw(Graphics g, String text, Font font, Color color,
+                     int x, int y) {
+        BufferedImage image = getImage(text, font, color);
+        g.drawImage(image, x, y - getMetrics(font).getAscent(), null);
+    }
+
+    /**
+     * Returns the number of lookups that found a rendered text.
+     *
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to render the text.
+     *
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of rendered texts kept.
+     *
+     * @return number of texts
+     */
+    public int size() {
+        return images.size();
+    }
+
+    /**
+     * Remove all rendered texts.
+     */
+    public void clear() {
+        images.clear();
+    }
+
+    /**
+     * Render a text into a new image.
+     *
+     * @param text the text
+     * @param font font of the text
+     * @param color color of the text
+     * @return the image
+     */
+    private BufferedImage render(String text, Font font, Color color) {
+
+        FontMetrics fm = getMetrics(font);
+
+        BufferedImage image = new BufferedImage(
+                Math.max(1, fm.stringWidth(text)),
+                Math.max(1, fm.getHeight()),
+                BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g = image.createGraphics();
+        g.setFont(font);
+        g.setColor(color);
+        g.drawString(text, 0, fm.getAscent());
+        g.dispose();
+
+        return image;
+    }
+}
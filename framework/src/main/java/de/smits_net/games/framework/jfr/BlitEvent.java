@@ -0,0 +1,18 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Bringing the back buffer to the screen.
+ */
+@Name("de.smits_net.games.Blit")
+@Label("Blit")
+@Category({"Game Framework", "Game Loop"})
+@StackTrace(false)
+public final class BlitEvent extends Event {
+}
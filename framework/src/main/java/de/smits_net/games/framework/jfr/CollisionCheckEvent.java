@@ -0,0 +1,32 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Check of two sprites for an intersection. Disabled by default.
+ */
+@Name("de.smits_net.games.CollisionCheck")
+@Label("Collision Check")
+@Category({"Game Framework", "Collision"})
+@StackTrace(false)
+@Enabled(false)
+public final class CollisionCheckEvent extends Event {
+
+    /** Class of the sprite checked. */
+    @Label("Sprite")
+    public Class<?> sprite;
+
+    /** Class of the other sprite. */
+    @Label("Other Sprite")
+    public Class<?> other;
+
+    /** Result of the check. */
+    @Label("Intersects")
+    public boolean intersects;
+}
@@ -0,0 +1,23 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One frame of the game loop, including the updates, the rendering and
+ * the time waited for the next frame.
+ */
+@Name("de.smits_net.games.Frame")
+@Label("Frame")
+@Category({"Game Framework", "Game Loop"})
+@StackTrace(false)
+public final class FrameEvent extends Event {
+
+    /** Number of updates executed before the frame. */
+    @Label("Tick")
+    public long tick;
+}
@@ -0,0 +1,32 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Loading of an image, either from the cache or from a file.
+ */
+@Name("de.smits_net.games.ImageLoad")
+@Label("Image Load")
+@Category({"Game Framework", "Assets"})
+@StackTrace(false)
+public final class ImageLoadEvent extends Event {
+
+    /** Path of the loaded file. */
+    @Label("File")
+    public String file;
+
+    /** Indicates whether the image was found in the cache. */
+    @Label("Cache Hit")
+    public boolean cacheHit;
+
+    /** Time spent decoding the file. */
+    @Label("Decode Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long decodeTime;
+}
@@ -0,0 +1,18 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Drawing of a frame into the back buffer.
+ */
+@Name("de.smits_net.games.Render")
+@Label("Render")
+@Category({"Game Framework", "Game Loop"})
+@StackTrace(false)
+public final class RenderEvent extends Event {
+}
@@ -0,0 +1,23 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Updates executed without rendering because the rendering was too
+ * slow.
+ */
+@Name("de.smits_net.games.SkippedFrames")
+@Label("Skipped Frames")
+@Category({"Game Framework", "Game Loop"})
+@StackTrace(false)
+public final class SkippedFramesEvent extends Event {
+
+    /** Number of frames that were not rendered. */
+    @Label("Skipped Frames")
+    public int skipped;
+}
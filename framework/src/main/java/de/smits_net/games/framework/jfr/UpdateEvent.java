@@ -0,0 +1,23 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call of the game logic, i.e. the dispatching of the events and
+ * the update of the game.
+ */
+@Name("de.smits_net.games.Update")
+@Label("Update")
+@Category({"Game Framework", "Game Loop"})
+@StackTrace(false)
+public final class UpdateEvent extends Event {
+
+    /** Number of the update. */
+    @Label("Tick")
+    public long tick;
+}
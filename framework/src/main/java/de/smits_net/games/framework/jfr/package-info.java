@@ -0,0 +1,12 @@
+/**
+ * Java Flight Recorder events emitted by the framework. The events allow
+ * to correlate hitches of the game loop with garbage collections or other
+ * activities of the JVM in a recording, e.g. one created with
+ * {@code -XX:StartFlightRecording}. When no recording is running, emitting
+ * the events costs next to nothing.
+ * <p>
+ * The events for collision checks are disabled by default because they
+ * occur very often. They have to be enabled explicitly in the recording
+ * settings.
+ */
+package de.smits_net.games.framework.jfr;
@@ -0,0 +1,796 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.sprite;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Index of sprites using a dynamic tree of axis aligned bounding boxes (a
+ * bounding volume hierarchy). Every sprite is a leaf of the tree, every
+ * inner node has the box enclosing its two children. A query descends only
+ * into the nodes whose box overlaps the area of the query, so the costs
+ * grow with the logarithm of the number of sprites, independent of the
+ * sizes of the sprites. This makes the tree a better choice than the
+ * {@link SpatialHash} if small and large sprites are mixed.
+ * <p>
+ * The boxes of the leaves are enlarged by a margin. As long as a sprite
+ * stays inside its enlarged box, updating it costs nothing but the
+ * comparison of the boxes. Only sprites leaving their box are removed and
+ * inserted again. The tree is kept balanced by rotations like an AVL tree.
+ * <p>
+ * Besides the queries of {@link SpriteIndex}, the tree supports ray casts
+ * and the enumeration of all pairs of sprites whose bounding boxes overlap.
+ *
+ * @param <T> type of the sprites
+ */
+public class AabbTree<T extends Sprite> implements SpriteIndex<T> {
+
+    /**
+     * A node of the tree.
+     */
+    private static final class Node {
+
+        /** Left edge of the box. */
+        private int minX;
+
+        /** Upper edge of the box. */
+        private int minY;
+
+        /** Right edge of the box. */
+        private int maxX;
+
+        /** Lower edge of the box. */
+        private int maxY;
+
+        /** Parent node, {@code null} for the root. */
+        private Node parent;
+
+        /** First child, {@code null} for a leaf. */
+        private Node left;
+
+        /** Second child, {@code null} for a leaf. */
+        private Node right;
+
+        /** Height of the subtree, 0 for a leaf. */
+        private int height;
+
+        /** Sprite of a leaf, {@code null} for an inner node. */
+        private Sprite sprite;
+
+        /** Number of a leaf, used to report every pair only once. */
+        private int id;
+
+        /** Number of the last synchronization that found the sprite. */
+        private int round;
+
+        /**
+         * Indicates whether the node is a leaf.
+         *
+         * @return {@code true} for a leaf
+         */
+        boolean isLeaf() {
+            return left == null;
+        }
+
+        /**
+         * Set the box to the box enclosing two nodes.
+         *
+         * @param a first node
+         * @param b second node
+         */
+        void union(Node a, Node b) {
+            minX = Math.min(a.minX, b.minX);
+            minY = Math.min(a.minY, b.minY);
+            maxX = Math.max(a.maxX, b.maxX);
+            maxY = Math.max(a.maxY, b.maxY);
+        }
+
+        /**
+         * Checks whether the box overlaps an area.
+         *
+         * @param x1 left edge of the area
+         * @param y1 upper edge of the area
+         * @param x2 right edge of the area
+         * @param y2 lower edge of the area
+         * @return {@code true} if the box overlaps the area
+         */
+        boolean overlaps(int x1, int y1, int x2, int y2) {
+            return (minX <= x2) && (x1 <= maxX)
+                    && (minY <= y2) && (y1 <= maxY);
+        }
+    }
+
+    /** Margin used by the default constructor. */
+    public static final int DEFAULT_MARGIN = 8;
+
+    /** Enlargement of the boxes of the leaves on every side. */
+    private final int margin;
+
+    /** The leaves of the sprites. */
+    private final Map<Sprite, Node> leaves = new IdentityHashMap<>();
+
+    /** Root of the tree, {@code null} if empty. */
+    private Node root;
+
+    /** Inner nodes removed from the tree, linked by their parent. */
+    private Node free;
+
+    /** Stack of the nodes to be visited by the queries. */
+    private Node[] stack = new Node[64];
+
+    /** Number of nodes on the stack. */
+    private int top;
+
+    /** Number of the next leaf. */
+    private int nextId;
+
+    /** Number of the current synchronization. */
+    private int round;
+
+    /**
+     * Create a new tree with the {@link #DEFAULT_MARGIN}.
+     */
+    public AabbTree() {
+        this(DEFAULT_MARGIN);
+    }
+
+    /**
+     * Create a new tree.
+     *
+     * @param margin enlargement of the boxes of the sprites on every side,
+     *               sprites moving less than this distance are not
+     *               inserted again
+     */
+    public AabbTree(int margin) {
+
+        if (margin < 0) {
+            throw new IllegalArgumentException(
+                    "Margin must not be negative: " + margin);
+        }
+
+        this.margin = margin;
+    }
+
+    /**
+     * Returns the enlargement of the boxes of the sprites.
+     *
+     * @return the margin
+     */
+    public int getMargin() {
+        return margin;
+    }
+
+    /**
+     * Returns the height of the tree, e.g. to check its balance.
+     *
+     * @return the height, -1 if the tree is empty
+     */
+    public int getHeight() {
+        return (root == null) ? -1 : root.height;
+    }
+
+    /**
+     * @see SpriteIndex#add(Sprite)
+     */
+    @Override
+    public void add(T sprite) {
+
+        Node leaf = leaves.get(sprite);
+
+        if (leaf != null) {
+            move(leaf);
+            return;
+        }
+
+        leaf = new Node();
+        leaf.sprite = sprite;
+        leaf.id = nextId++;
+        leaves.put(sprite, leaf);
+        fatten(leaf);
+        insertLeaf(leaf);
+    }
+
+    /**
+     * @see SpriteIndex#remove(Sprite)
+     */
+    @Override
+    public boolean remove(Sprite sprite) {
+
+        Node leaf = leaves.remove(sprite);
+
+        if (leaf == null) {
+            return false;
+        }
+
+        removeLeaf(leaf);
+
+        return true;
+    }
+
+    /**
+     * @see SpriteIndex#update(Sprite)
+     */
+    @Override
+    public void update(T sprite) {
+
+        Node leaf = leaves.get(sprite);
+
+        if (leaf != null) {
+            move(leaf);
+        }
+    }
+
+    /**
+     * @see SpriteIndex#update()
+     */
+    @Override
+    public void update() {
+        for (Node leaf : leaves.values()) {
+            move(leaf);
+        }
+    }
+
+    /**
+     * @see SpriteIndex#synchronize(Collection)
+     */
+    @Override
+    public void synchronize(Collection<? extends T> sprites) {
+
+        round++;
+
+        for (T sprite : sprites) {
+            add(sprite);
+            leaves.get(sprite).round = round;
+        }
+
+        Iterator<Node> it = leaves.values().iterator();
+
+        while (it.hasNext()) {
+            Node leaf = it.next();
+
+            if (leaf.round != round) {
+                it.remove();
+                removeLeaf(leaf);
+            }
+        }
+    }
+
+    /**
+     * @see SpriteIndex#clear()
+     */
+    @Override
+    public void clear() {
+        leaves.clear();
+        root = null;
+        free = null;
+    }
+
+    /**
+     * @see SpriteIndex#size()
+     */
+    @Override
+    public int size() {
+        return leaves.size();
+    }
+
+    /**
+     * @see SpriteIndex#find(int, int, int, int, Predicate)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T find(int x, int y, int width, int height,
+                  Predicate<? super T> filter) {
+
+        // queries started by the filter use the stack above this query
+        int base = top;
+
+        try {
+            push(root);
+
+            while (top > base) {
+                Node n = stack[--top];
+
+                if (!n.overlaps(x, y, x + width, y + height)) {
+                    continue;
+                }
+
+                if (!n.isLeaf()) {
+                    push(n.left);
+                    push(n.right);
+                }
+                else if (n.sprite.overlaps(x, y, width, height)
+                        && filter.test((T) n.sprite)) {
+                    return (T) n.sprite;
+                }
+            }
+
+            return null;
+        }
+        finally {
+            top = base;
+        }
+    }
+
+    /**
+     * Searches the first sprite whose bounding box is hit by a line from a
+     * start point to an end point, e.g. the path of a laser beam.
+     *
+     * @param fromX x coordinate of the start point
+     * @param fromY y coordinate of the start point
+     * @param toX x coordinate of the end point
+     * @param toY y coordinate of the end point
+     * @param filter condition the sprite has to fulfill, e.g. a test of the
+     *               border of the sprite
+     * @return the sprite closest to the start point or {@code null} if the
+     *      line does not hit any sprite
+     */
+    @SuppressWarnings("unchecked")
+    public T raycast(double fromX, double fromY, double toX, double toY,
+                     Predicate<? super T> filter) {
+
+        double dx = toX - fromX;
+        double dy = toY - fromY;
+        double best = 1.0;
+        Sprite hit = null;
+        int base = top;
+
+        try {
+            push(root);
+
+            while (top > base) {
+                Node n = stack[--top];
+
+                // nodes further away than the best hit cannot contain a
+                // better one
+                if (entry(fromX, fromY, dx, dy, n.minX, n.minY, n.maxX,
+                        n.maxY, best) < 0.0) {
+                    continue;
+                }
+
+                if (!n.isLeaf()) {
+                    push(n.left);
+                    push(n.right);
+                    continue;
+                }
+
+                Sprite s = n.sprite;
+                int sx = s.getBoundsX();
+                int sy = s.getBoundsY();
+                double t = entry(fromX, fromY, dx, dy, sx, sy,
+                        sx + s.getBoundsWidth(), sy + s.getBoundsHeight(),
+                        best);
+
+                if ((t >= 0.0) && ((hit == null) || (t < best))
+                        && filter.test((T) s)) {
+                    best = t;
+                    hit = s;
+                }
+            }
+
+            return (T) hit;
+        }
+        finally {
+            top = base;
+        }
+    }
+
+    /**
+     * Performs an action for every pair of sprites whose bounding boxes
+     * overlap. Every pair is reported once, in no particular order. Whether
+     * the sprites really intersect can be tested with
+     * {@link Sprite#intersects(Sprite)}. The action must not modify the
+     * tree.
+     *
+     * @param action the action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachPair(BiConsumer<? super T, ? super T> action) {
+
+        int base = top;
+
+        try {
+            for (Node leaf : leaves.values()) {
+                Sprite s = leaf.sprite;
+                int x1 = s.getBoundsX();
+                int y1 = s.getBoundsY();
+                int x2 = x1 + s.getBoundsWidth();
+                int y2 = y1 + s.getBoundsHeight();
+
+                push(root);
+
+                while (top > base) {
+                    Node n = stack[--top];
+
+                    if (!n.overlaps(x1, y1, x2, y2)) {
+                        continue;
+                    }
+
+                    if (!n.isLeaf()) {
+                        push(n.left);
+                        push(n.right);
+                    }
+                    else if ((n.id > leaf.id) && n.sprite.overlaps(x1, y1,
+                            x2 - x1, y2 - y1)) {
+                        action.accept((T) s, (T) n.sprite);
+                    }
+                }
+            }
+        }
+        finally {
+            top = base;
+        }
+    }
+
+    /**
+     * Calculate where a line enters a box.
+     *
+     * @param x x coordinate of the start point
+     * @param y y coordinate of the start point
+     * @param dx distance to the end point in x direction
+     * @param dy distance to the end point in y direction
+     * @param minX left edge of the box
+     * @param minY upper edge of the box
+     * @param maxX right edge of the box
+     * @param maxY lower edge of the box
+     * @param limit the part of the line to be checked, 1 for the full line
+     * @return fraction of the line before the box, negative if the line
+     *      misses the box
+     */
+    private static double entry(double x, double y, double dx, double dy,
+                                double minX, double minY, double maxX,
+                                double maxY, double limit) {
+
+        double tMin = 0.0;
+        double tMax = limit;
+
+        // clip the line against the two pairs of parallel edges
+        if (dx == 0.0) {
+            if ((x < minX) || (x > maxX)) {
+                return -1.0;
+            }
+        }
+        else {
+            double t1 = (minX - x) / dx;
+            double t2 = (maxX - x) / dx;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        if (dy == 0.0) {
+            if ((y < minY) || (y > maxY)) {
+                return -1.0;
+            }
+        }
+        else {
+            double t1 = (minY - y) / dy;
+            double t2 = (maxY - y) / dy;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        return (tMin <= tMax) ? tMin : -1.0;
+    }
+
+    /**
+     * Insert the leaf of a sprite again if the sprite left the enlarged
+     * box.
+     *
+     * @param leaf the leaf
+     */
+    private void move(Node leaf) {
+
+        Sprite s = leaf.sprite;
+        int x = s.getBoundsX();
+        int y = s.getBoundsY();
+
+        if ((x >= leaf.minX) && (y >= leaf.minY)
+                && (x + s.getBoundsWidth() <= leaf.maxX)
+                && (y + s.getBoundsHeight() <= leaf.maxY)) {
+            return;
+        }
+
+        removeLeaf(leaf);
+        fatten(leaf);
+        insertLeaf(leaf);
+    }
+
+    /**
+     * Set the box of a leaf to the enlarged bounding box of its sprite.
+     *
+     * @param leaf the leaf
+     */
+    private void fatten(Node leaf) {
+        Sprite s = leaf.sprite;
+        leaf.minX = s.getBoundsX() - margin;
+        leaf.minY = s.getBoundsY() - margin;
+        leaf.maxX = s.getBoundsX() + s.getBoundsWidth() + margin;
+        leaf.maxY = s.getBoundsY() + s.getBoundsHeight() + margin;
+    }
+
+    /**
+     * Insert a leaf next to the node where it enlarges the tree least.
+     *
+     * @param leaf the leaf
+     */
+    private void insertLeaf(Node leaf) {
+
+        if (root == null) {
+            root = leaf;
+            leaf.parent = null;
+            return;
+        }
+
+        // descend as long as pushing the leaf further down is cheaper than
+        // making it the sibling of the current node, the costs are the
+        // perimeters of the boxes
+        Node n = root;
+
+        while (!n.isLeaf()) {
+            long combined = unionPerimeter(n, leaf);
+            long cost = 2 * combined;
+            long inherited = 2 * (combined - perimeter(n));
+            long costLeft = descentCost(n.left, leaf) + inherited;
+            long costRight = descentCost(n.right, leaf) + inherited;
+
+            if ((cost < costLeft) && (cost < costRight)) {
+                break;
+            }
+
+            n = (costLeft < costRight) ? n.left : n.right;
+        }
+
+        Node oldParent = n.parent;
+        Node parent = allocate();
+        parent.parent = oldParent;
+        parent.left = n;
+        parent.right = leaf;
+        parent.union(n, leaf);
+        parent.height = n.height + 1;
+        n.parent = parent;
+        leaf.parent = parent;
+
+        if (oldParent == null) {
+            root = parent;
+        }
+        else if (oldParent.left == n) {
+            oldParent.left = parent;
+        }
+        else {
+            oldParent.right = parent;
+        }
+
+        refit(parent);
+    }
+
+    /**
+     * Remove a leaf from the tree. Its parent is replaced by the sibling of
+     * the leaf.
+     *
+     * @param leaf the leaf
+     */
+    private void removeLeaf(Node leaf) {
+
+        if (leaf == root) {
+            root = null;
+            return;
+        }
+
+        Node parent = leaf.parent;
+        Node grandParent = parent.parent;
+        Node sibling = (parent.left == leaf) ? parent.right : parent.left;
+
+        if (grandParent == null) {
+            root = sibling;
+            sibling.parent = null;
+        }
+        else {
+            if (grandParent.left == parent) {
+                grandParent.left = sibling;
+            }
+            else {
+                grandParent.right = sibling;
+            }
+
+            sibling.parent = grandParent;
+            refit(grandParent);
+        }
+
+        leaf.parent = null;
+        release(parent);
+    }
+
+    /**
+     * Balance the nodes from the given node up to the root and adjust
+     * their boxes and heights.
+     *
+     * @param node the first node, may be {@code null}
+     */
+    private void refit(Node node) {
+
+        Node n = node;
+
+        while (n != null) {
+            n = balance(n);
+            n.height = 1 + Math.max(n.left.height, n.right.height);
+            n.union(n.left, n.right);
+            n = n.parent;
+        }
+    }
+
+    /**
+     * Rotate the higher child of a node up if the heights of the children
+     * differ by more than one.
+     *
+     * @param a the node
+     * @return the node now at the position of the given node
+     */
+    private Node balance(Node a) {
+
+        if (a.isLeaf() || (a.height < 2)) {
+            return a;
+        }
+
+        Node b = a.left;
+        Node c = a.right;
+        int difference = c.height - b.height;
+
+        if (difference > 1) {
+            rotateUp(a, c, b);
+
+            // the node moved down received the lower grandchild and may be
+            // out of balance itself
+            balance(a);
+            c.height = 1 + Math.max(c.left.height, c.right.height);
+            return c;
+        }
+
+        if (difference < -1) {
+            rotateUp(a, b, c);
+            balance(a);
+            b.height = 1 + Math.max(b.left.height, b.right.height);
+            return b;
+        }
+
+        return a;
+    }
+
+    /**
+     * Replace a node by its higher child. The lower grandchild becomes
+     * the child of the node.
+     *
+     * @param a the node
+     * @param up the higher child of the node
+     * @param other the other child of the node
+     */
+    private void rotateUp(Node a, Node up, Node other) {
+
+        Node f = up.left;
+        Node g = up.right;
+        Node high = (f.height > g.height) ? f : g;
+        Node low = (high == f) ? g : f;
+
+        up.parent = a.parent;
+        a.parent = up;
+
+        if (up.parent == null) {
+            root = up;
+        }
+        else if (up.parent.left == a) {
+            up.parent.left = up;
+        }
+        else {
+            up.parent.right = up;
+        }
+
+        up.left = a;
+        up.right = high;
+
+        if (a.left == up) {
+            a.left = low;
+        }
+        else {
+            a.right = low;
+        }
+
+        low.parent = a;
+
+        a.union(other, low);
+        a.height = 1 + Math.max(other.height, low.height);
+        up.union(a, high);
+        up.height = 1 + Math.max(a.height, high.height);
+    }
+
+    /**
+     * Calculate the costs of inserting a leaf below a node.
+     *
+     * @param n the node
+     * @param leaf the leaf
+     * @return the increase of the perimeters
+     */
+    private static long descentCost(Node n, Node leaf) {
+
+        long combined = unionPerimeter(n, leaf);
+
+        return n.isLeaf() ? combined : combined - perimeter(n);
+    }
+
+    /**
+     * Calculate the perimeter of the box of a node.
+     *
+     * @param n the node
+     * @return the perimeter
+     */
+    private static long perimeter(Node n) {
+        return 2L * ((long) n.maxX - n.minX + (long) n.maxY - n.minY);
+    }
+
+    /**
+     * Calculate the perimeter of the box enclosing two nodes.
+     *
+     * @param a first node
+     * @param b second node
+     * @return the perimeter
+     */
+    private static long unionPerimeter(Node a, Node b) {
+        long width = (long) Math.max(a.maxX, b.maxX) - Math.min(a.minX, b.minX);
+        long height = (long) Math.max(a.maxY, b.maxY)
+                - Math.min(a.minY, b.minY);
+
+        return 2L * (width + height);
+    }
+
+    /**
+     * Take an inner node from the free nodes or create a new one.
+     *
+     * @return the node
+     */
+    private Node allocate() {
+
+        Node n = free;
+
+        if (n == null) {
+            return new Node();
+        }
+
+        free = n.parent;
+        n.parent = null;
+
+        return n;
+    }
+
+    /**
+     * Keep an inner node removed from the tree for later use.
+     *
+     * @param n the node
+     */
+    private void release(Node n) {
+        n.left = null;
+        n.right = null;
+        n.parent = free;
+        free = n;
+    }
+
+    /**
+     * Put a node on the stack of the queries, growing the stack if
+     * necessary.
+     *
+     * @param n the node, ignored if {@code null}
+     */
+    private void push(Node n) {
+
+        if (n == null) {
+            return;
+        }
+
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+
+        stack[top++] = n;
+    }
+}
@@ -1,13 +1,13 @@
 /* (c) 2015 Thomas Smits */
 package de.smits_net.games.framework.sprite;
 
-import de.smits_net.games.framework.Constants;
 import de.smits_net.games.framework.board.Board;
 import de.smits_net.games.framework.image.AnimatedImage;
 
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Point;
+import java.awt.image.BufferedImage;
 import java.awt.image.ImageObserver;
 
 /**
@@ -78,10 +78,18 @@ public abstract class AnimatedSprite extends Sprite {
     }
 
     /**
-     * @see Sprite#draw(Graphics, ImageObserver)
+     * @see Sprite#getCurrentImage()
      */
     @Override
-    public void draw(Graphics g, ImageObserver observer) {
+    protected BufferedImage getCurrentImage() {
+        return animatedImage.getImage();
+    }
+
+    /**
+     * @see Sprite#draw(Graphics, ImageObserver, double)
+     */
+    @Override
+    public void draw(Graphics g, ImageObserver observer, double alpha) {
 
         if (!isVisible()) {
             return;
@@ -94,9 +102,21 @@ public abstract class AnimatedSprite extends Sprite {
             setVisible(false);
         }
 
-        animatedImage.draw(g, getPosition(), observer);
+        Point p = getInterpolatedPosition(alpha);
+        BufferedImage current = animatedImage.getImage();
+
+        if (board.isCulled(p.x, p.y, current.getWidth(),
+                current.getHeight())) {
+            // outside of the viewport
+            return;
+        }
+
+        animatedImage.draw(g, p, observer, board.getClock().nanoTime());
+        current = animatedImage.getImage();
+        board.markDirty(p.x, p.y, current.getWidth(), current.getHeight());
+        board.getDiagnostics().spriteDrawn();
 
-        if (Constants.DEBUG_SPRITE_OUTLINE) {
+        if (board.getDiagnostics().isSpriteOutlines()) {
             g.setColor(isActive() ? Color.RED : Color.GREEN);
             g.drawPolygon(absoluteBorder());
         }
@@ -0,0 +1,633 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.sprite;
+
+import java.awt.Polygon;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Border of a sprite prepared for collision tests with the separating axis
+ * theorem: two convex polygons do not intersect if and only if their
+ * projections onto one of the normals of their edges do not overlap.
+ * <p>
+ * A concave border is split into convex parts once (ear clipping followed
+ * by merging neighbouring triangles as long as the result stays convex).
+ * For every part the normals of its edges and the projection of the part
+ * onto them are calculated in advance, so a test only has to project the
+ * corners of the other part.
+ * <p>
+ * Shapes are cached per border, sprites sharing a border share the shape.
+ * The coordinates are relative to the position of the sprite. Borders and
+ * shapes must not be changed after the shape was created.
+ */
+final class CollisionShape {
+
+    /**
+     * A convex part of the border.
+     */
+    private static final class Part {
+
+        /** x coordinates of the corners. */
+        private final int[] xs;
+
+        /** y coordinates of the corners. */
+        private final int[] ys;
+
+        /** x components of the normals of the edges. */
+        private final int[] nx;
+
+        /** y components of the normals of the edges. */
+        private final int[] ny;
+
+        /** Minimum of the projections of the corners onto the normals. */
+        private final long[] min;
+
+        /** Maximum of the projections of the corners onto the normals. */
+        private final long[] max;
+
+        /** Left edge of the bounding box. */
+        private final int minX;
+
+        /** Upper edge of the bounding box. */
+        private final int minY;
+
+        /** Right edge of the bounding box. */
+        private final int maxX;
+
+        /** Lower edge of the bounding box. */
+        private final int maxY;
+
+        /**
+         * All edges are horizontal or vertical, the bounding box test
+         * already covers the normals of the part.
+         */
+        private final boolean aligned;
+
+        /**
+         * Create a new part.
+         *
+         * @param xs x coordinates of the corners of a convex polygon
+         * @param ys y coordinates of the corners
+         */
+        Part(int[] xs, int[] ys) {
+            this.xs = xs;
+            this.ys = ys;
+
+            int n = xs.length;
+            int[] axisX = new int[n];
+            int[] axisY = new int[n];
+            int axes = 0;
+
+            for (int i = 0; i < n; i++) {
+                int j = (i + 1) % n;
+                int x = ys[i] - ys[j];
+                int y = xs[j] - xs[i];
+
+                if (((x != 0) || (y != 0)) && !parallel(axisX, axisY, axes,
+                        x, y)) {
+                    axisX[axes] = x;
+                    axisY[axes] = y;
+                    axes++;
+                }
+            }
+
+            nx = new int[axes];
+            ny = new int[axes];
+            min = new long[axes];
+            max = new long[axes];
+            System.arraycopy(axisX, 0, nx, 0, axes);
+            System.arraycopy(axisY, 0, ny, 0, axes);
+
+            boolean onlyXY = true;
+
+            for (int k = 0; k < axes; k++) {
+                onlyXY &= (nx[k] == 0) || (ny[k] == 0);
+            }
+
+            aligned = onlyXY;
+
+            for (int k = 0; k < axes; k++) {
+                min[k] = Long.MAX_VALUE;
+                max[k] = Long.MIN_VALUE;
+
+                for (int i = 0; i < n; i++) {
+                    long p = (long) nx[k] * xs[i] + (long) ny[k] * ys[i];
+                    min[k] = Math.min(min[k], p);
+                    max[k] = Math.max(max[k], p);
+                }
+            }
+
+            int x1 = Integer.MAX_VALUE;
+            int y1 = Integer.MAX_VALUE;
+            int x2 = Integer.MIN_VALUE;
+            int y2 = Integer.MIN_VALUE;
+
+            for (int i = 0; i < n; i++) {
+                x1 = Math.min(x1, xs[i]);
+                y1 = Math.min(y1, ys[i]);
+                x2 = Math.max(x2, xs[i]);
+                y2 = Math.max(y2, ys[i]);
+            }
+
+            minX = x1;
+            minY = y1;
+            maxX = x2;
+            maxY = y2;
+        }
+
+        /**
+         * Checks whether the part intersects another part.
+         *
+         * @param o the other part
+         * @param dx x offset of the other part
+         * @param dy y offset of the other part
+         * @return {@code true} if the parts intersect
+         */
+        boolean intersects(Part o, int dx, int dy) {
+
+            if ((minX > o.maxX + dx) || (o.minX + dx > maxX)
+                    || (minY > o.maxY + dy) || (o.minY + dy > maxY)) {
+                return false;
+            }
+
+            return (aligned || !separates(o, dx, dy))
+                    && (o.aligned || !o.separates(this, -dx, -dy));
+        }
+
+        /**
+         * Checks whether the projections onto one of the normals of this
+         * part separate this part from the other one.
+         *
+         * @param o the other part
+         * @param dx x offset of the other part
+         * @param dy y offset of the other part
+         * @return {@code true} if a separating axis was found
+         */
+        boolean separates(Part o, int dx, int dy) {
+
+            for (int k = 0; k < nx.length; k++) {
+                long a = nx[k];
+                long b = ny[k];
+                long offset = a * dx + b * dy;
+                long oMin = Long.MAX_VALUE;
+                long oMax = Long.MIN_VALUE;
+
+                for (int i = 0; i < o.xs.length; i++) {
+                    long p = a * o.xs[i] + b * o.ys[i];
+                    oMin = Math.min(oMin, p);
+                    oMax = Math.max(oMax, p);
+                }
+
+                if ((oMin + offset > max[k]) || (oMax + offset < min[k])) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Checks whether the part intersects a rectangle.
+         *
+         * @param x1 left edge of the rectangle
+         * @param y1 upper edge of the rectangle
+         * @param x2 right edge of the rectangle
+         * @param y2 lower edge of the rectangle
+         * @return {@code true} if the part intersects the rectangle
+         */
+        boolean intersects(int x1, int y1, int x2, int y2) {
+
+            // the normals of the rectangle are the axes of the bounding box
+            if ((minX > x2) || (x1 > maxX) || (minY > y2) || (y1 > maxY)) {
+                return false;
+            }
+
+            if (aligned) {
+                return true;
+            }
+
+            for (int k = 0; k < nx.length; k++) {
+                long a = nx[k];
+                long b = ny[k];
+
+                // the corners with the smallest and largest projection
+                long rMin = a * ((a < 0) ? x2 : x1) + b * ((b < 0) ? y2 : y1);
+                long rMax = a * ((a < 0) ? x1 : x2) + b * ((b < 0) ? y1 : y2);
+
+                if ((rMin > max[k]) || (rMax < min[k])) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /** Shapes of the borders in use. */
+    private static final Map<Polygon, CollisionShape> CACHE
+            = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** The convex parts of the border. */
+    private final Part[] parts;
+
+    /**
+     * Create the shape of a border.
+     *
+     * @param border the border
+     */
+    private CollisionShape(Polygon border) {
+
+        int[][] polygon = clean(border.xpoints, border.ypoints,
+                border.npoints);
+        int[] xs = polygon[0];
+        int[] ys = polygon[1];
+
+        if ((xs.length < 3) || isConvex(xs, ys, identity(xs.length))) {
+            // a convex polygon, a line or a point
+            parts = (xs.length == 0) ? new Part[0]
+                    : new Part[] { new Part(xs, ys) };
+            return;
+        }
+
+        List<int[]> convex = merge(xs, ys, triangulate(xs, ys));
+        parts = new Part[convex.size()];
+
+        for (int i = 0; i < parts.length; i++) {
+            int[] indices = convex.get(i);
+            int[] px = new int[indices.length];
+            int[] py = new int[indices.length];
+
+            for (int k = 0; k < indices.length; k++) {
+                px[k] = xs[indices[k]];
+                py[k] = ys[indices[k]];
+            }
+
+            parts[i] = new Part(px, py);
+        }
+    }
+
+    /**
+     * Returns the shape of a border, creating it on first use.
+     *
+     * @param border the border
+     * @return the shape
+     */
+    static CollisionShape of(Polygon border) {
+        return CACHE.computeIfAbsent(border, CollisionShape::new);
+    }
+
+    /**
+     * Returns the number of convex parts of the shape.
+     *
+     * @return number of parts
+     */
+    int getPartCount() {
+        return parts.length;
+    }
+
+    /**
+     * Checks whether the shape intersects another shape.
+     *
+     * @param other the other shape
+     * @param dx x offset of the other shape relative to this one
+     * @param dy y offset of the other shape relative to this one
+     * @return {@code true} if the shapes intersect or touch
+     */
+    boolean intersects(CollisionShape other, int dx, int dy) {
+
+        for (Part a : parts) {
+            for (Part b : other.parts) {
+                if (a.intersects(b, dx, dy)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether the shape intersects a rectangle.
+     *
+     * @param x1 left edge of the rectangle relative to the shape
+     * @param y1 upper edge of the rectangle relative to the shape
+     * @param x2 right edge of the rectangle relative to the shape
+     * @param y2 lower edge of the rectangle relative to the shape
+     * @return {@code true} if the shape intersects or touches the rectangle
+     */
+    boolean intersects(int x1, int y1, int x2, int y2) {
+
+        for (Part a : parts) {
+            if (a.intersects(x1, y1, x2, y2)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Remove repeated and collinear corners and orient the polygon so that
+     * the cross product at convex corners is positive.
+     *
+     * @param x x coordinates of the corners
+     * @param y y coordinates of the corners
+     * @param n number of corners
+     * @return the x and y coordinates of the remaining corners
+     */
+    private static int[][] clean(int[] x, int[] y, int n) {
+
+        List<int[]> points = new ArrayList<>();
+
+        for (int i = 0; i < n; i++) {
+            points.add(new int[] { x[i], y[i] });
+        }
+
+        boolean changed = true;
+
+        while (changed && (points.size() > 2)) {
+            changed = false;
+
+            for (int i = 0; (i < points.size()) && (points.size() > 2);
+                    i++) {
+                int[] a = points.get((i + points.size() - 1) % points.size());
+                int[] b = points.get(i);
+                int[] c = points.get((i + 1) % points.size());
+
+                // a corner on the straight line between its neighbours
+                // does not change the border, the tip of a spike does
+                boolean between = (cross(a[0], a[1], b[0], b[1], c[0], c[1])
+                        == 0) && ((long) (b[0] - a[0]) * (c[0] - b[0])
+                        + (long) (b[1] - a[1]) * (c[1] - b[1]) > 0);
+
+                if (between || ((b[0] == c[0]) && (b[1] == c[1]))) {
+                    points.remove(i);
+                    changed = true;
+                }
+            }
+        }
+
+        if ((points.size() == 2) && (points.get(0)[0] == points.get(1)[0])
+                && (points.get(0)[1] == points.get(1)[1])) {
+            points.remove(1);
+        }
+
+        long area = 0L;
+
+        for (int i = 0; i < points.size(); i++) {
+            int[] a = points.get(i);
+            int[] b = points.get((i + 1) % points.size());
+            area += (long) a[0] * b[1] - (long) b[0] * a[1];
+        }
+
+        if (area < 0L) {
+            Collections.reverse(points);
+        }
+
+        int[][] result = new int[2][points.size()];
+
+        for (int i = 0; i < points.size(); i++) {
+            result[0][i] = points.get(i)[0];
+            result[1][i] = points.get(i)[1];
+        }
+
+        return result;
+    }
+
+    /**
+     * Split a simple polygon into triangles by cutting off ears.
+     *
+     * @param xs x coordinates of the corners
+     * @param ys y coordinates of the corners
+     * @return the triangles as indices of the corners
+     */
+    private static List<int[]> triangulate(int[] xs, int[] ys) {
+
+        List<Integer> remaining = new ArrayList<>();
+
+        for (int i = 0; i < xs.length; i++) {
+            remaining.add(i);
+        }
+
+        List<int[]> triangles = new ArrayList<>();
+
+        while (remaining.size() > 3) {
+            int m = remaining.size();
+            int ear = 0;
+
+            for (int i = 0; i < m; i++) {
+                if (isEar(xs, ys, remaining, i)) {
+                    ear = i;
+                    break;
+                }
+            }
+
+            // without an ear the border crosses itself, cutting off any
+            // corner still covers the border
+            triangles.add(new int[] {
+                    remaining.get((ear + m - 1) % m), remaining.get(ear),
+                    remaining.get((ear + 1) % m) });
+            remaining.remove(ear);
+        }
+
+        triangles.add(new int[] {
+                remaining.get(0), remaining.get(1), remaining.get(2) });
+
+        return triangles;
+    }
+
+    /**
+     * Checks whether a corner is an ear, i.e. a convex corner whose
+     * triangle with its neighbours contains no other corner.
+     *
+     * @param xs x coordinates of the corners
+     * @param ys y coordinates of the corners
+     * @param remaining the corners not cut off yet
+     * @param i position of the corner in the remaining corners
+     * @return {@code true} for an ear
+     */
+    private static boolean isEar(int[] xs, int[] ys, List<Integer> remaining,
+                                 int i) {
+
+        int m = remaining.size();
+        int a = remaining.get((i + m - 1) % m);
+        int b = remaining.get(i);
+        int c = remaining.get((i + 1) % m);
+
+        if (cross(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) <= 0) {
+            return false;
+        }
+
+        for (int p : remaining) {
+            if ((p == a) || (p == b) || (p == c)
+                    || ((xs[p] == xs[a]) && (ys[p] == ys[a]))
+                    || ((xs[p] == xs[c]) && (ys[p] == ys[c]))) {
+                continue;
+            }
+
+            if ((cross(xs[a], ys[a], xs[b], ys[b], xs[p], ys[p]) >= 0)
+                    && (cross(xs[b], ys[b], xs[c], ys[c], xs[p], ys[p]) >= 0)
+                    && (cross(xs[c], ys[c], xs[a], ys[a], xs[p], ys[p]) >= 0)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Merge neighbouring convex polygons as long as the result is convex
+     * (Hertel and Mehlhorn).
+     *
+     * @param xs x coordinates of the corners
+     * @param ys y coordinates of the corners
+     * @param polygons convex polygons as indices of the corners
+     * @return the merged polygons
+     */
+    private static List<int[]> merge(int[] xs, int[] ys,
+                                     List<int[]> polygons) {
+
+        List<int[]> result = new ArrayList<>(polygons);
+        boolean merged = true;
+
+        while (merged) {
+            merged = false;
+
+            search:
+            for (int i = 0; i < result.size(); i++) {
+                for (int j = i + 1; j < result.size(); j++) {
+                    int[] union = join(result.get(i), result.get(j));
+
+                    if ((union != null) && isConvex(xs, ys, union)) {
+                        result.set(i, union);
+                        result.remove(j);
+                        merged = true;
+                        break search;
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Join two polygons sharing an edge.
+     *
+     * @param p first polygon as indices of the corners
+     * @param q second polygon as indices of the corners
+     * @return the joined polygon or {@code null} if there is no common edge
+     */
+    private static int[] join(int[] p, int[] q) {
+
+        for (int i = 0; i < p.length; i++) {
+            int a = p[i];
+            int b = p[(i + 1) % p.length];
+
+            for (int j = 0; j < q.length; j++) {
+                if ((q[j] != b) || (q[(j + 1) % q.length] != a)) {
+                    continue;
+                }
+
+                // p from b around to a, then q from after a to before b
+                int[] union = new int[p.length + q.length - 2];
+                int k = 0;
+
+                for (int s = 0; s < p.length; s++) {
+                    union[k++] = p[(i + 1 + s) % p.length];
+                }
+
+                for (int s = 2; s < q.length; s++) {
+                    union[k++] = q[(j + s) % q.length];
+                }
+
+                return union;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks whether a polygon is convex.
+     *
+     * @param xs x coordinates of the corners
+     * @param ys y coordinates of the corners
+     * @param indices the corners of the polygon
+     * @return {@code true} if no corner is reflex
+     */
+    private static boolean isConvex(int[] xs, int[] ys, int[] indices) {
+
+        int n = indices.length;
+
+        for (int i = 0; i < n; i++) {
+            int a = indices[(i + n - 1) % n];
+            int b = indices[i];
+            int c = indices[(i + 1) % n];
+
+            if (cross(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the indices 0 to n - 1.
+     *
+     * @param n number of indices
+     * @return the indices
+     */
+    private static int[] identity(int n) {
+
+        int[] indices = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+
+        return indices;
+    }
+
+    /**
+     * Checks whether an axis is parallel to one of the given axes.
+     *
+     * @param axisX x components of the axes
+     * @param axisY y components of the axes
+     * @param count number of axes
+     * @param x x component of the axis
+     * @param y y component of the axis
+     * @return {@code true} if a parallel axis exists
+     */
+    private static boolean parallel(int[] axisX, int[] axisY, int count,
+                                    int x, int y) {
+
+        for (int i = 0; i < count; i++) {
+            if ((long) axisX[i] * y - (long) axisY[i] * x == 0L) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Calculate the cross product of the vectors a to b and b to c.
+     *
+     * @param ax x coordinate of a
+     * @param ay y coordinate of a
+     * @param bx x coordinate of b
+     * @param by y coordinate of b
+     * @param cx x coordinate of c
+     * @param cy y coordinate of c
+     * @return positive for a convex corner at b
+     */
+    private static long cross(int ax, int ay, int bx, int by, int cx,
+                              int cy) {
+        return (long) (bx - ax) * (cy - by) - (long) (by - ay) * (cx - bx);
+    }
+}
@@ -31,11 +31,11 @@ public class DirectionAnimatedSprite extends AnimatedSprite {
 
     /** Images for the different directions. */
     protected Map<Direction, AnimatedImage> movementAnimations
-            = new EnumMap<>();
+            = new EnumMap<>(Direction.class);
 
     /** Images for the different directions. */
     protected Map<Direction, AnimatedImage> noMovementAnimations
-            = new EnumMap<>();
+            = new EnumMap<>(Direction.class);
 
     /** Direction the sprite is pointing at. */
     protected Direction currentDirection = NONE;
@@ -248,10 +248,10 @@ public class DirectionAnimatedSprite extends AnimatedSprite {
     }
 
     /**
-     * @see Sprite#draw(Graphics, ImageObserver)
+     * @see Sprite#draw(Graphics, ImageObserver, double)
      */
     @Override
-    public void draw(Graphics g, ImageObserver observer) {
+    public void draw(Graphics g, ImageObserver observer, double alpha) {
 
         if (invisibleAfterFrames > 0) {
             invisibleAfterFrames--;
@@ -278,6 +278,6 @@ public class DirectionAnimatedSprite extends AnimatedSprite {
 
         animatedImage = mapToUse.get(currentDirection);
 
-        super.draw(g, observer);
+        super.draw(g, observer, alpha);
     }
 }
@@ -0,0 +1,489 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.sprite;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Index of sprites using a uniform grid. The world is divided into square
+ * cells and every sprite is registered in the cells covered by its bounding
+ * box. A query only looks at the sprites in the cells covered by the area
+ * of the query, so the costs depend on the number of sprites nearby and not
+ * on the number of sprites in the game.
+ * <p>
+ * Only the occupied cells are stored, in a hash table, so the world has no
+ * limits. Updating a sprite that stays in its cells costs nothing but the
+ * comparison of the cells. The grid works best if the cells are about as
+ * large as the typical sprite. Sprites much larger than a cell are
+ * registered in many cells and make updates expensive.
+ *
+ * @param <T> type of the sprites
+ */
+public class SpatialHash<T extends Sprite> implements SpriteIndex<T> {
+
+    /**
+     * A sprite in the grid.
+     */
+    private static final class Entry {
+
+        /** The sprite. */
+        private final Sprite sprite;
+
+        /** First column covered by the sprite. */
+        private int minX;
+
+        /** First row covered by the sprite. */
+        private int minY;
+
+        /** Last column covered by the sprite. */
+        private int maxX;
+
+        /** Last row covered by the sprite. */
+        private int maxY;
+
+        /** Number of the last query that visited the entry. */
+        private int query;
+
+        /** Number of the last synchronization that found the sprite. */
+        private int round;
+
+        /**
+         * Create a new entry.
+         *
+         * @param sprite the sprite
+         */
+        Entry(Sprite sprite) {
+            this.sprite = sprite;
+        }
+    }
+
+    /**
+     * An occupied cell of the grid.
+     */
+    private static final class Cell {
+
+        /** Column of the cell. */
+        private final int x;
+
+        /** Row of the cell. */
+        private final int y;
+
+        /** Sprites covering the cell. */
+        private final List<Entry> entries = new ArrayList<>(4);
+
+        /** Next cell with the same hash value. */
+        private Cell next;
+
+        /**
+         * Create a new cell.
+         *
+         * @param x column of the cell
+         * @param y row of the cell
+         */
+        Cell(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    /** Initial size of the hash table, has to be a power of two. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Width and height of a cell. */
+    private final int cellSize;
+
+    /** The sprites of the index. */
+    private final Map<Sprite, Entry> entries = new IdentityHashMap<>();
+
+    /** Hash table of the occupied cells. */
+    private Cell[] cells = new Cell[INITIAL_CAPACITY];
+
+    /** Number of occupied cells. */
+    private int cellCount;
+
+    /** Number of the current query. */
+    private int query;
+
+    /** Number of the current synchronization. */
+    private int round;
+
+    /**
+     * Create a new grid.
+     *
+     * @param cellSize width and height of a cell
+     */
+    public SpatialHash(int cellSize) {
+
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException(
+                    "Cell size must be positive: " + cellSize);
+        }
+
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Returns the width and height of a cell.
+     *
+     * @return the cell size
+     */
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * @see SpriteIndex#add(Sprite)
+     */
+    @Override
+    public void add(T sprite) {
+
+        Entry e = entries.get(sprite);
+
+        if (e != null) {
+            move(e);
+            return;
+        }
+
+        // an empty range of cells, move() inserts the entry
+        e = new Entry(sprite);
+        e.maxX = -1;
+        e.maxY = -1;
+        entries.put(sprite, e);
+        move(e);
+    }
+
+    /**
+     * @see SpriteIndex#remove(Sprite)
+     */
+    @Override
+    public boolean remove(Sprite sprite) {
+
+        Entry e = entries.remove(sprite);
+
+        if (e == null) {
+            return false;
+        }
+
+        delete(e);
+
+        return true;
+    }
+
+    /**
+     * @see SpriteIndex#update(Sprite)
+     */
+    @Override
+    public void update(T sprite) {
+
+        Entry e = entries.get(sprite);
+
+        if (e != null) {
+            move(e);
+        }
+    }
+
+    /**
+     * @see SpriteIndex#update()
+     */
+    @Override
+    public void update() {
+        for (Entry e : entries.values()) {
+            move(e);
+        }
+    }
+
+    /**
+     * @see SpriteIndex#synchronize(Collection)
+     */
+    @Override
+    public void synchronize(Collection<? extends T> sprites) {
+
+        round++;
+
+        for (T sprite : sprites) {
+            add(sprite);
+            entries.get(sprite).round = round;
+        }
+
+        Iterator<Entry> it = entries.values().iterator();
+
+        while (it.hasNext()) {
+            Entry e = it.next();
+
+            if (e.round != round) {
+                it.remove();
+                delete(e);
+            }
+        }
+    }
+
+    /**
+     * @see SpriteIndex#clear()
+     */
+    @Override
+    public void clear() {
+        entries.clear();
+        cells = new Cell[INITIAL_CAPACITY];
+        cellCount = 0;
+    }
+
+    /**
+     * @see SpriteIndex#size()
+     */
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @see SpriteIndex#find(int, int, int, int, Predicate)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T find(int x, int y, int width, int height,
+                  Predicate<? super T> filter) {
+
+        // sprites covering several cells are visited only once per query
+        query++;
+
+        int minX = Math.floorDiv(x, cellSize);
+        int minY = Math.floorDiv(y, cellSize);
+        int maxX = Math.floorDiv(x + width, cellSize);
+        int maxY = Math.floorDiv(y + height, cellSize);
+
+        if ((long) (maxX - minX + 1) * (maxY - minY + 1) > cellCount) {
+            // the area covers more cells than occupied, check all of them
+            for (Cell head : cells) {
+                for (Cell c = head; c != null; c = c.next) {
+                    if ((c.x >= minX) && (c.x <= maxX)
+                            && (c.y >= minY) && (c.y <= maxY)) {
+                        Sprite found = find(c, x, y, width, height, filter);
+
+                        if (found != null) {
+                            return (T) found;
+                        }
+                    }
+                }
+            }
+
+            return null;
+        }
+
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                Cell c = lookup(cx, cy);
+
+                if (c != null) {
+                    Sprite found = find(c, x, y, width, height, filter);
+
+                    if (found != null) {
+                        return (T) found;
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Search the sprites of a cell.
+     *
+     * @param c the cell
+     * @param x x coordinate of the area
+     * @param y y coordinate of the area
+     * @param width width of the area
+     * @param height height of the area
+     * @param filter condition the sprite has to fulfill
+     * @return the sprite found or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    private Sprite find(Cell c, int x, int y, int width, int height,
+                        Predicate<? super T> filter) {
+
+        List<Entry> list = c.entries;
+
+        for (int i = 0; i < list.size(); i++) {
+            Entry e = list.get(i);
+
+            if (e.query == query) {
+                continue;
+            }
+
+            e.query = query;
+
+            if (e.sprite.overlaps(x, y, width, height)
+                    && filter.test((T) e.sprite)) {
+                return e.sprite;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Move an entry to the cells covered by the sprite if they changed.
+     *
+     * @param e the entry
+     */
+    private void move(Entry e) {
+
+        Sprite s = e.sprite;
+        int x = s.getBoundsX();
+        int y = s.getBoundsY();
+        int minX = Math.floorDiv(x, cellSize);
+        int minY = Math.floorDiv(y, cellSize);
+        int maxX = Math.floorDiv(x + s.getBoundsWidth(), cellSize);
+        int maxY = Math.floorDiv(y + s.getBoundsHeight(), cellSize);
+
+        if ((e.minX == minX) && (e.minY == minY)
+                && (e.maxX == maxX) && (e.maxY == maxY)) {
+            return;
+        }
+
+        delete(e);
+
+        e.minX = minX;
+        e.minY = minY;
+        e.maxX = maxX;
+        e.maxY = maxY;
+        insert(e);
+    }
+
+    /**
+     * Add an entry to the cells it covers.
+     *
+     * @param e the entry
+     */
+    private void insert(Entry e) {
+        for (int cy = e.minY; cy <= e.maxY; cy++) {
+            for (int cx = e.minX; cx <= e.maxX; cx++) {
+                Cell c = lookup(cx, cy);
+
+                if (c == null) {
+                    c = create(cx, cy);
+                }
+
+                c.entries.add(e);
+            }
+        }
+    }
+
+    /**
+     * Remove an entry from the cells it covers. Empty cells are removed.
+     *
+     * @param e the entry
+     */
+    private void delete(Entry e) {
+        for (int cy = e.minY; cy <= e.maxY; cy++) {
+            for (int cx = e.minX; cx <= e.maxX; cx++) {
+                int index = index(cx, cy, cells.length);
+                Cell previous = null;
+
+                for (Cell c = cells[index]; c != null; c = c.next) {
+                    if ((c.x == cx) && (c.y == cy)) {
+                        c.entries.remove(e);
+
+                        if (c.entries.isEmpty()) {
+                            if (previous == null) {
+                                cells[index] = c.next;
+                            }
+                            else {
+                                previous.next = c.next;
+                            }
+
+                            cellCount--;
+                        }
+
+                        break;
+                    }
+
+                    previous = c;
+                }
+            }
+        }
+    }
+
+    /**
+     * Find an occupied cell.
+     *
+     * @param cx column of the cell
+     * @param cy row of the cell
+     * @return the cell or {@code null} if empty
+     */
+    private Cell lookup(int cx, int cy) {
+
+        for (Cell c = cells[index(cx, cy, cells.length)]; c != null;
+                c = c.next) {
+            if ((c.x == cx) && (c.y == cy)) {
+                return c;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Add a new cell to the hash table, growing the table if necessary.
+     *
+     * @param cx column of the cell
+     * @param cy row of the cell
+     * @return the new cell
+     */
+    private Cell create(int cx, int cy) {
+
+        if (cellCount >= cells.length * 3 / 4) {
+            rehash(cells.length * 2);
+        }
+
+        Cell c = new Cell(cx, cy);
+        int index = index(cx, cy, cells.length);
+        c.next = cells[index];
+        cells[index] = c;
+        cellCount++;
+
+        return c;
+    }
+
+    /**
+     * Move all cells into a new hash table.
+     *
+     * @param capacity size of the new table
+     */
+    private void rehash(int capacity) {
+
+        Cell[] table = new Cell[capacity];
+
+        for (Cell head : cells) {
+            Cell c = head;
+
+            while (c != null) {
+                Cell next = c.next;
+                int index = index(c.x, c.y, capacity);
+                c.next = table[index];
+                table[index] = c;
+                c = next;
+            }
+        }
+
+        cells = table;
+    }
+
+    /**
+     * Calculate the position of a cell in the hash table.
+     *
+     * @param cx column of the cell
+     * @param cy row of the cell
+     * @param capacity size of the table, a power of two
+     * @return the index
+     */
+    private static int index(int cx, int cy, int capacity) {
+        int h = cx * 0x9E3779B1 + cy * 0x85EBCA77;
+        return (h ^ (h >>> 16)) & (capacity - 1);
+    }
+}
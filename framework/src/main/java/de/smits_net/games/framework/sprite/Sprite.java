@@ -1,11 +1,13 @@
 /* (c) 2015 Thomas Smits */
 package de.smits_net.games.framework.sprite;
 
-import de.smits_net.games.framework.Constants;
 import de.smits_net.games.framework.board.Board;
+import de.smits_net.games.framework.image.CollisionMask;
+import de.smits_net.games.framework.image.Drawable;
 import de.smits_net.games.framework.image.ImageBase;
 import de.smits_net.games.framework.image.ImagePack;
 import de.smits_net.games.framework.image.SimpleImage;
+import de.smits_net.games.framework.jfr.CollisionCheckEvent;
 
 import java.awt.Color;
 import java.awt.Dimension;
@@ -17,7 +19,9 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
 import java.awt.image.ImageObserver;
 import java.io.*;
 import java.net.URL;
@@ -28,7 +32,7 @@ import java.util.List;
  *
  * @author Thomas Smits
  */
-public class Sprite implements KeyListener, MouseListener {
+public class Sprite implements Drawable, KeyListener, MouseListener {
 
     /**
      * How to handle sprites that reach the boundaries of the board.
@@ -50,9 +54,45 @@ public class Sprite implements KeyListener, MouseListener {
     /** Border of the sprite (for collision detection). */
     private Polygon border = new Polygon();
 
+    /**
+     * The border moved to the position of the sprite. Created on first use
+     * and moved along with the sprite.
+     */
+    private Polygon absoluteBorder;
+
+    /** x coordinate the absolute border was moved to. */
+    private int borderX;
+
+    /** y coordinate the absolute border was moved to. */
+    private int borderY;
+
+    /**
+     * Bounding box of the border relative to the position of the sprite.
+     * Created on first use.
+     */
+    private Rectangle borderBounds;
+
+    /** Border prepared for collision tests, created on first use. */
+    private CollisionShape shape;
+
+    /** Collisions are tested with the pixels of the image. */
+    private boolean pixelPerfect;
+
+    /** Image the cached collision mask belongs to. */
+    private BufferedImage maskImage;
+
+    /** Collision mask of the current image, cached. */
+    private CollisionMask mask;
+
     /** Position of the sprite. */
     protected Point2D.Double position;
 
+    /** Position of the sprite before the last movement. */
+    protected Point2D.Double previousPosition;
+
+    /** Update of the board in which the sprite moved the last time. */
+    private long moveTick = -1;
+
     /** Dimensions of the sprite. */
     protected Dimension dimension;
 
@@ -90,6 +130,7 @@ public class Sprite implements KeyListener, MouseListener {
                   BoundaryPolicy policy, ImagePack image) {
         this.board = board;
         this.position = new Point2D.Double(position.x, position.y);
+        this.previousPosition = new Point2D.Double(position.x, position.y);
         this.visible = true;
         this.image = image;
         dimension = new Dimension(image.getDimension());
@@ -112,6 +153,9 @@ public class Sprite implements KeyListener, MouseListener {
      */
     public final void setBorder(Polygon border) {
         this.border = border;
+        this.absoluteBorder = null;
+        this.borderBounds = null;
+        this.shape = null;
     }
 
     /**
@@ -150,13 +194,196 @@ public class Sprite implements KeyListener, MouseListener {
     /**
      * Calculate the border in relation to the current position.
      * This is required to detect intersections between sprites.
+     * <p>
+     * The polygon is kept and only moved if the position of the sprite
+     * changed since the last call, it must not be modified by the caller.
      *
      * @return the border's absolute position
      */
     protected Polygon absoluteBorder() {
-        Polygon p = new Polygon(border.xpoints, border.ypoints, border.npoints);
-        p.translate((int) position.x, (int) position.y);
-        return p;
+
+        int x = (int) position.x;
+        int y = (int) position.y;
+
+        if (absoluteBorder == null) {
+            // the border may be shared with other sprites, use a copy
+            absoluteBorder = new Polygon(border.xpoints, border.ypoints,
+                    border.npoints);
+            absoluteBorder.translate(x, y);
+        }
+        else if ((x != borderX) || (y != borderY)) {
+            absoluteBorder.translate(x - borderX, y - borderY);
+        }
+
+        borderX = x;
+        borderY = y;
+
+        return absoluteBorder;
+    }
+
+    /**
+     * Returns the bounding box of the border relative to the position of
+     * the sprite. The rectangle is kept, it must not be modified by the
+     * caller.
+     *
+     * @return the bounding box
+     */
+    private Rectangle borderBounds() {
+
+        if (borderBounds == null) {
+            borderBounds = border.getBounds();
+        }
+
+        return borderBounds;
+    }
+
+    /**
+     * Returns the border prepared for collision tests.
+     *
+     * @return the shape
+     */
+    private CollisionShape shape() {
+
+        if (shape == null) {
+            shape = CollisionShape.of(border);
+        }
+
+        return shape;
+    }
+
+    /**
+     * Returns the image currently displayed by the sprite.
+     *
+     * @return the image
+     */
+    protected BufferedImage getCurrentImage() {
+        return image.getImage();
+    }
+
+    /**
+     * Returns the collision mask of the image currently displayed.
+     *
+     * @return the mask
+     */
+    private CollisionMask mask() {
+
+        BufferedImage current = getCurrentImage();
+
+        if (current != maskImage) {
+            mask = CollisionMask.of(current);
+            maskImage = current;
+        }
+
+        return mask;
+    }
+
+    /**
+     * Sets whether collisions are tested with the pixels of the image
+     * instead of the border. Pixels with an alpha value below
+     * {@link CollisionMask#ALPHA_THRESHOLD} do not collide. The border is
+     * still used to reject sprites far apart, so its bounding box has to
+     * cover the image.
+     * <p>
+     * If only one of two sprites tests its pixels, the pixels are compared
+     * with the bounding box of the other sprite and the borders have to
+     * intersect, too.
+     *
+     * @param pixelPerfect {@code true} to test the pixels
+     */
+    public void setPixelPerfect(boolean pixelPerfect) {
+        this.pixelPerfect = pixelPerfect;
+    }
+
+    /**
+     * Returns whether collisions are tested with the pixels of the image.
+     *
+     * @return {@code true} if the pixels are tested
+     */
+    public boolean isPixelPerfect() {
+        return pixelPerfect;
+    }
+
+    /**
+     * Returns the axis aligned bounding box of the border at the current
+     * position of the sprite.
+     *
+     * @return the bounding box
+     */
+    public Rectangle getBounds() {
+        Rectangle b = borderBounds();
+        return new Rectangle(getBoundsX(), getBoundsY(), b.width, b.height);
+    }
+
+    /**
+     * Returns the left edge of the bounding box without creating a
+     * rectangle. Used by the sprite indexes.
+     *
+     * @return x coordinate of the bounding box
+     */
+    int getBoundsX() {
+        return borderBounds().x + (int) position.x;
+    }
+
+    /**
+     * Returns the upper edge of the bounding box without creating a
+     * rectangle. Used by the sprite indexes.
+     *
+     * @return y coordinate of the bounding box
+     */
+    int getBoundsY() {
+        return borderBounds().y + (int) position.y;
+    }
+
+    /**
+     * Returns the width of the bounding box.
+     *
+     * @return the width
+     */
+    int getBoundsWidth() {
+        return borderBounds().width;
+    }
+
+    /**
+     * Returns the height of the bounding box.
+     *
+     * @return the height
+     */
+    int getBoundsHeight() {
+        return borderBounds().height;
+    }
+
+    /**
+     * Checks whether the bounding boxes of this and the other sprite
+     * overlap. The boxes include their right and lower edges, so that no
+     * intersection of the borders is missed.
+     *
+     * @param other the other sprite
+     * @return {@code false} if the sprites cannot intersect
+     */
+    private boolean boundsOverlap(Sprite other) {
+
+        return overlaps(other.getBoundsX(), other.getBoundsY(),
+                other.getBoundsWidth(), other.getBoundsHeight());
+    }
+
+    /**
+     * Checks whether the bounding box of the sprite overlaps the given
+     * area. Edges touching each other count as overlap.
+     *
+     * @param x x coordinate of the area
+     * @param y y coordinate of the area
+     * @param width width of the area
+     * @param height height of the area
+     * @return {@code true} if the bounding box overlaps the area
+     */
+    boolean overlaps(int x, int y, int width, int height) {
+
+        Rectangle b = borderBounds();
+        int bx = getBoundsX();
+        int by = getBoundsY();
+
+        return (bx <= x + width) && (x <= bx + b.width)
+                && (by <= y + height) && (y <= by + b.height);
     }
 
     /**
@@ -166,14 +393,39 @@ public class Sprite implements KeyListener, MouseListener {
      * @param observer image observer
      */
     public void draw(Graphics g, ImageObserver observer) {
+        draw(g, observer, 1.0);
+    }
+
+    /**
+     * Draw the sprite at a position interpolated between the position
+     * before and after the last movement.
+     *
+     * @param g graphics context
+     * @param observer image observer
+     * @param alpha interpolation factor between 0 (position before the
+     *              last movement) and 1 (current position)
+     */
+    @Override
+    public void draw(Graphics g, ImageObserver observer, double alpha) {
 
         if (!isVisible()) {
             return;
         }
 
-        image.draw(g, new Point((int) position.x, (int) position.y), observer);
+        Point p = getInterpolatedPosition(alpha);
+        BufferedImage current = image.getImage();
+
+        if (board.isCulled(p.x, p.y, current.getWidth(),
+                current.getHeight())) {
+            // outside of the viewport
+            return;
+        }
+
+        image.draw(g, p, observer);
+        board.markDirty(p.x, p.y, current.getWidth(), current.getHeight());
+        board.getDiagnostics().spriteDrawn();
 
-        if (Constants.DEBUG_SPRITE_OUTLINE) {
+        if (board.getDiagnostics().isSpriteOutlines()) {
             g.setColor(isActive() ? Color.RED : Color.GREEN);
             g.drawPolygon(absoluteBorder());
         }
@@ -190,27 +442,44 @@ public class Sprite implements KeyListener, MouseListener {
     }
 
     /**
-     * Checks whether this sprite intersects with the given polygon.
+     * Checks whether this sprite intersects with the given polygon. The
+     * polygon may be concave.
      *
      * @param p2 the polygon.
      * @return {@code true} if there is an intersection, otherwise {@code false}
      */
     public boolean intersects(Polygon p2) {
 
+        Rectangle b2 = p2.getBounds();
+
+        if (!overlaps(b2.x, b2.y, b2.width, b2.height)) {
+            return false;
+        }
+
         Polygon p1 = absoluteBorder();
 
         for (int i = 0; i < p1.npoints; i++) {
-            if (p2.contains(new Point(p1.xpoints[i], p1.ypoints[i]))) {
+            if (contains(p2, p1.xpoints[i], p1.ypoints[i])) {
                 return true;
             }
         }
 
         for (int i = 0; i < p2.npoints; i++) {
-            if (p1.contains(new Point(p2.xpoints[i], p2.ypoints[i]))) {
+            if (contains(p1, p2.xpoints[i], p2.ypoints[i])) {
                 return true;
             }
         }
 
+        // polygons crossing each other without a corner inside the other
+        // polygon, e.g. two bars forming a plus sign
+        for (int i = 0, j = p1.npoints - 1; i < p1.npoints; j = i++) {
+            for (int k = 0, l = p2.npoints - 1; k < p2.npoints; l = k++) {
+                if (crosses(p1, j, i, p2, l, k)) {
+                    return true;
+                }
+            }
+        }
+
         return false;
     }
 
@@ -221,7 +490,62 @@ public class Sprite implements KeyListener, MouseListener {
      * @return {@code true} if there is an intersection, otherwise {@code false}
      */
     public boolean intersects(Sprite other) {
-        return intersects(other.absoluteBorder());
+
+        CollisionCheckEvent event = new CollisionCheckEvent();
+        event.begin();
+
+        board.getDiagnostics().collisionTested();
+
+        // most sprites are far apart, compare the bounding boxes first
+        boolean result = boundsOverlap(other) && intersectsClose(other);
+
+        if (event.shouldCommit()) {
+            event.sprite = getClass();
+            event.other = other.getClass();
+            event.intersects = result;
+            event.commit();
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether this sprite intersects with the given sprite after the
+     * bounding boxes were found to overlap.
+     *
+     * @param other the other sprite
+     * @return {@code true} if there is an intersection
+     */
+    private boolean intersectsClose(Sprite other) {
+
+        int x = (int) position.x;
+        int y = (int) position.y;
+        int dx = (int) other.position.x - x;
+        int dy = (int) other.position.y - y;
+
+        if (pixelPerfect && other.pixelPerfect) {
+            return mask().overlaps(other.mask(), dx, dy);
+        }
+
+        if (!shape().intersects(other.shape(), dx, dy)) {
+            return false;
+        }
+
+        // only one sprite tests its pixels, compare them with the bounding
+        // box of the other sprite
+        if (pixelPerfect) {
+            return mask().overlaps(other.getBoundsX() - x,
+                    other.getBoundsY() - y, other.getBoundsWidth(),
+                    other.getBoundsHeight());
+        }
+
+        if (other.pixelPerfect) {
+            return other.mask().overlaps(getBoundsX() - x - dx,
+                    getBoundsY() - y - dy, getBoundsWidth(),
+                    getBoundsHeight());
+        }
+
+        return true;
     }
 
     /**
@@ -242,12 +566,114 @@ public class Sprite implements KeyListener, MouseListener {
      * @return {@code true} if there is an intersection, otherwise {@code false}
      */
     public boolean intersects(Rectangle other) {
-        Polygon p = new Polygon();
-        p.addPoint(other.x, other.y);
-        p.addPoint(other.x + other.width, other.y);
-        p.addPoint(other.x + other.width, other.y + other.height);
-        p.addPoint(other.x, other.y + other.height);
-        return intersects(p);
+
+        // the rectangle covers the pixels up to x + width - 1, the bounding
+        // box and the shape include their edges
+        int right = other.x + other.width - 1;
+        int bottom = other.y + other.height - 1;
+
+        if (!overlaps(other.x, other.y, other.width - 1, other.height - 1)) {
+            return false;
+        }
+
+        int x = (int) position.x;
+        int y = (int) position.y;
+
+        if (pixelPerfect) {
+            return mask().overlaps(other.x - x, other.y - y,
+                    other.width, other.height);
+        }
+
+        return shape().intersects(other.x - x, other.y - y,
+                right - x, bottom - y);
+    }
+
+    /**
+     * Checks whether an edge of a polygon touches or crosses an edge of
+     * another polygon.
+     *
+     * @param p1 first polygon
+     * @param i1 start point of the edge of the first polygon
+     * @param j1 end point of the edge of the first polygon
+     * @param p2 second polygon
+     * @param i2 start point of the edge of the second polygon
+     * @param j2 end point of the edge of the second polygon
+     * @return {@code true} if the edges have a common point
+     */
+    private static boolean crosses(Polygon p1, int i1, int j1,
+                                   Polygon p2, int i2, int j2) {
+
+        int x1 = p1.xpoints[i1];
+        int y1 = p1.ypoints[i1];
+        int x2 = p1.xpoints[j1];
+        int y2 = p1.ypoints[j1];
+        int x3 = p2.xpoints[i2];
+        int y3 = p2.ypoints[i2];
+        int x4 = p2.xpoints[j2];
+        int y4 = p2.ypoints[j2];
+
+        // Line2D reports two points as intersecting, repeated corners are
+        // covered by the neighbouring edges
+        if (((x1 == x2) && (y1 == y2)) || ((x3 == x4) && (y3 == y4))) {
+            return false;
+        }
+
+        return Line2D.linesIntersect(x1, y1, x2, y2, x3, y3, x4, y4);
+    }
+
+    /**
+     * Checks whether a point is inside a polygon. Gives the same result as
+     * {@link Polygon#contains(int, int)}, which allocates a copy of the
+     * bounding box on every call.
+     *
+     * @param p the polygon
+     * @param x x coordinate of the point
+     * @param y y coordinate of the point
+     * @return {@code true} if the point is inside
+     */
+    private static boolean contains(Polygon p, int x, int y) {
+
+        int n = p.npoints;
+
+        if (n <= 2) {
+            return false;
+        }
+
+        int[] xs = p.xpoints;
+        int[] ys = p.ypoints;
+        boolean inside = false;
+
+        // count the edges crossed by a ray from the point to the right,
+        // edges include their upper end point but not their lower one
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            int x1 = xs[j];
+            int y1 = ys[j];
+            int x2 = xs[i];
+            int y2 = ys[i];
+
+            if ((y1 == y2) || (x >= Math.max(x1, x2))
+                    || (y < Math.min(y1, y2)) || (y >= Math.max(y1, y2))) {
+                continue;
+            }
+
+            if (x < Math.min(x1, x2)) {
+                inside = !inside;
+                continue;
+            }
+
+            // compare relative to the lower end point of the edge, in the
+            // same order of operations as Polygon to get the same rounding
+            int bx = (y1 < y2) ? x1 : x2;
+            int by = Math.min(y1, y2);
+            double dx = (y1 < y2) ? (x2 - x1) : (x1 - x2);
+            double dy = Math.abs(y2 - y1);
+
+            if (x - bx < (y - by) / dy * dx) {
+                inside = !inside;
+            }
+        }
+
+        return inside;
     }
 
     /**
@@ -306,6 +732,28 @@ public class Sprite implements KeyListener, MouseListener {
         return new Point((int) position.x, (int) position.y);
     }
 
+    /**
+     * Get the position interpolated between the position before and after
+     * the last movement. If the sprite did not move during the last update
+     * of the board, the current position is returned.
+     *
+     * @param alpha interpolation factor between 0 (position before the
+     *              last movement) and 1 (current position)
+     * @return the interpolated position
+     */
+    public Point getInterpolatedPosition(double alpha) {
+
+        if ((alpha >= 1.0) || (moveTick != board.getTicks())) {
+            return getPosition();
+        }
+
+        return new Point(
+                (int) (previousPosition.x
+                        + (position.x - previousPosition.x) * alpha),
+                (int) (previousPosition.y
+                        + (position.y - previousPosition.y) * alpha));
+    }
+
     /**
      * Sets the position.
      *
@@ -313,6 +761,7 @@ public class Sprite implements KeyListener, MouseListener {
      */
     public void setPosition(Point position) {
         this.position = new Point2D.Double(position.x, position.y);
+        this.previousPosition = new Point2D.Double(position.x, position.y);
     }
 
     /**
@@ -373,12 +822,25 @@ public class Sprite implements KeyListener, MouseListener {
      */
     public void move(Velocity deltaV) {
 
+        rememberPosition();
+
         position.x = position.x + deltaV.x;
         position.y = position.y + deltaV.y;
 
         ensureBoundaryPolicy();
     }
 
+    /**
+     * Remember the current position as the start of the movement in the
+     * current update of the board. The position is used to interpolate
+     * the drawing position. Subclasses that change the position directly
+     * have to call this method before they change it.
+     */
+    protected final void rememberPosition() {
+        previousPosition.setLocation(position);
+        moveTick = board.getTicks();
+    }
+
     /**
      * Ensure that the boundary policy of the sprite is obeyed.
      */
@@ -567,7 +1029,9 @@ public class Sprite implements KeyListener, MouseListener {
      */
     @Override
     public void mouseClicked(MouseEvent e) {
-        if (intersects(new Rectangle(e.getX(), e.getY(), 1, 1))) {
+        Point p = board.getCamera().toWorld(e.getPoint());
+
+        if (intersects(new Rectangle(p.x, p.y, 1, 1))) {
             mouseClicked();
         }
     }
@@ -577,7 +1041,9 @@ public class Sprite implements KeyListener, MouseListener {
      */
     @Override
     public void mousePressed(MouseEvent e) {
-        if (intersects(new Rectangle(e.getX(), e.getY(), 1, 1))) {
+        Point p = board.getCamera().toWorld(e.getPoint());
+
+        if (intersects(new Rectangle(p.x, p.y, 1, 1))) {
             mousePressed();
         }
     }
@@ -1,18 +1,139 @@
 /* (c) 2015 Thomas Smits */
 package de.smits_net.games.framework.sprite;
 
+import de.smits_net.games.framework.image.Drawable;
+
 import java.awt.Graphics;
 import java.awt.image.ImageObserver;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Enhanced collection class for sprites.
+ * <p>
+ * The collision queries test every sprite of the collection. For large
+ * collections an index (e.g. a {@link SpatialHash}) can be set with
+ * {@link #setIndex(SpriteIndex)}, so that only the sprites near the sprite
+ * in question are tested. The index follows sprites added to or removed
+ * from the collection automatically. Sprites moved by {@link #move()} are
+ * updated as well, sprites moved in any other way have to be reported with
+ * {@link #updateIndex()} before the next query.
+ * <p>
+ * All pairs of intersecting sprites of one or two collections are found
+ * with {@code forEachOverlap} by sweeping over the sprites sorted by the
+ * left edges of their bounding boxes. The order is kept from one call to
+ * the next and only repaired, which is cheap as long as the sprites move
+ * only a little between two frames.
  *
  * @param <T> type of the sprite managed by this class.
  *
  * @author Thomas Smits
  */
-public class SpriteCollection<T extends Sprite> extends ArrayList<T> {
+public class SpriteCollection<T extends Sprite> extends ArrayList<T>
+        implements Drawable {
+
+    /** Index used by the collision queries, {@code null} if none. */
+    private transient SpriteIndex<T> index;
+
+    /**
+     * Number of sprites replaced with {@code set(int, T)}. Replacing
+     * is not a structural modification, counting it in {@code modCount}
+     * would break iterators replacing sprites.
+     */
+    private transient int replaceCount;
+
+    /** Number of changes of the list when the index was synchronized. */
+    private transient int indexModCount;
+
+    /** The sprites sorted by the left edges of their bounding boxes. */
+    private transient List<T> sweepOrder;
+
+    /** Number of changes of the list when the order was updated. */
+    private transient int sweepModCount;
+
+    /**
+     * Sets the index used by the collision queries.
+     *
+     * @param index the index or {@code null} to test all sprites
+     */
+    public void setIndex(SpriteIndex<T> index) {
+        this.index = index;
+
+        if (index != null) {
+            index.synchronize(this);
+            indexModCount = changes();
+        }
+    }
+
+    /**
+     * Returns the index used by the collision queries.
+     *
+     * @return the index or {@code null} if none
+     */
+    public SpriteIndex<T> getIndex() {
+        return index;
+    }
+
+    /**
+     * Updates the positions of the sprites in the index after they moved.
+     * Does nothing if the collection has no index.
+     */
+    public void updateIndex() {
+
+        if (index == null) {
+            return;
+        }
+
+        if (changes() != indexModCount) {
+            index.synchronize(this);
+            indexModCount = changes();
+        }
+        else {
+            index.update();
+        }
+    }
+
+    /**
+     * Returns the index after adding and removing the sprites changed in
+     * the collection.
+     *
+     * @return the index or {@code null} if none
+     */
+    private SpriteIndex<T> synchronizedIndex() {
+
+        if ((index != null) && (changes() != indexModCount)) {
+            index.synchronize(this);
+            indexModCount = changes();
+        }
+
+        return index;
+    }
+
+    /**
+     * @see ArrayList#set(int, Object)
+     */
+    @Override
+    public T set(int i, T element) {
+        T old = super.set(i, element);
+        replaceCount++;
+
+        return old;
+    }
+
+    /**
+     * Returns the number of changes of the list, i.e. sprites added,
+     * removed or replaced.
+     *
+     * @return the number of changes
+     */
+    private int changes() {
+        return modCount + replaceCount;
+    }
 
     /**
      * Draw all sprites in the collection.
@@ -24,6 +145,19 @@ public class SpriteCollection<T extends Sprite> extends ArrayList<T> {
         forEach(e -> e.draw(g, observer));
     }
 
+    /**
+     * Draw all sprites in the collection at their interpolated positions.
+     *
+     * @param g the graphics context
+     * @param observer the image observer
+     * @param alpha interpolation factor between 0 and 1
+     * @see Sprite#draw(Graphics, ImageObserver, double)
+     */
+    @Override
+    public void draw(Graphics g, ImageObserver observer, double alpha) {
+        forEach(e -> e.draw(g, observer, alpha));
+    }
+
     /**
      * Remove all invisible elements form the collection.
      */
@@ -36,6 +170,7 @@ public class SpriteCollection<T extends Sprite> extends ArrayList<T> {
      */
     public void move() {
         forEach(Sprite::move);
+        updateIndex();
     }
 
     /**
@@ -47,6 +182,13 @@ public class SpriteCollection<T extends Sprite> extends ArrayList<T> {
      */
     public boolean intersects(Sprite sp) {
 
+        SpriteIndex<T> idx = synchronizedIndex();
+
+        if (idx != null) {
+            return sp.isActive()
+                    && (idx.findIntersecting(sp, Sprite::isActive) != null);
+        }
+
         for (T t : this) {
             if (t.isActive() && sp.isActive() && t.intersects(sp)) {
                 return true;
@@ -55,4 +197,186 @@ public class SpriteCollection<T extends Sprite> extends ArrayList<T> {
 
         return false;
     }
+
+    /**
+     * Performs an action for every sprite in this collection intersecting
+     * the given sprite. The sprite itself is ignored if it is part of the
+     * collection. The action must not add or remove sprites.
+     *
+     * @param sp sprite to check
+     * @param action action performed for the intersecting sprites
+     */
+    public void forEachIntersecting(Sprite sp, Consumer<? super T> action) {
+
+        SpriteIndex<T> idx = synchronizedIndex();
+
+        if (idx != null) {
+            idx.forEachIntersecting(sp, action);
+            return;
+        }
+
+        for (T t : this) {
+            if ((t != sp) && sp.intersects(t)) {
+                action.accept(t);
+            }
+        }
+    }
+
+    /**
+     * Performs an action for every pair of intersecting sprites (see
+     * {@link Sprite#intersects(Sprite)}) of this collection. Every pair is
+     * reported once. The action must not add or remove sprites.
+     *
+     * @param action the action
+     */
+    public void forEachOverlap(BiConsumer<? super T, ? super T> action) {
+
+        List<T> order = sweepOrder();
+        int n = order.size();
+
+        for (int i = 0; i < n; i++) {
+            T a = order.get(i);
+            int right = a.getBoundsX() + a.getBoundsWidth();
+
+            // only the sprites starting before the end of a can overlap it
+            for (int k = i + 1; k < n; k++) {
+                T b = order.get(k);
+
+                if (b.getBoundsX() > right) {
+                    break;
+                }
+
+                report(a, b, action);
+            }
+        }
+    }
+
+    /**
+     * Performs an action for every pair of a sprite of this collection and
+     * a sprite of the other collection intersecting each other (see
+     * {@link Sprite#intersects(Sprite)}). Every pair is reported once. The
+     * action must not add or remove sprites.
+     *
+     * @param other the other collection, not this collection
+     * @param action the action, receiving the sprite of this collection
+     *               first
+     * @param <S> type of the sprites of the other collection
+     */
+    public <S extends Sprite> void forEachOverlap(
+            SpriteCollection<S> other,
+            BiConsumer<? super T, ? super S> action) {
+
+        if (other == this) {
+            throw new IllegalArgumentException(
+                    "Use forEachOverlap(action) for pairs of one collection");
+        }
+
+        List<T> as = sweepOrder();
+        List<S> bs = other.sweepOrder();
+        int i = 0;
+        int j = 0;
+
+        // the sprite starting further left is compared with the sprites
+        // of the other collection starting before its right edge
+        while ((i < as.size()) && (j < bs.size())) {
+            T a = as.get(i);
+            S b = bs.get(j);
+
+            if (a.getBoundsX() <= b.getBoundsX()) {
+                int right = a.getBoundsX() + a.getBoundsWidth();
+
+                for (int k = j; k < bs.size(); k++) {
+                    S c = bs.get(k);
+
+                    if (c.getBoundsX() > right) {
+                        break;
+                    }
+
+                    report(a, c, action);
+                }
+
+                i++;
+            }
+            else {
+                int right = b.getBoundsX() + b.getBoundsWidth();
+
+                for (int k = i; k < as.size(); k++) {
+                    T c = as.get(k);
+
+                    if (c.getBoundsX() > right) {
+                        break;
+                    }
+
+                    report(c, b, action);
+                }
+
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Pass a pair of sprites overlapping in x direction to the action if
+     * they intersect.
+     *
+     * @param a first sprite
+     * @param b second sprite
+     * @param action the action
+     * @param <A> type of the first sprite
+     * @param <B> type of the second sprite
+     */
+    private static <A extends Sprite, B extends Sprite> void report(
+            A a, B b, BiConsumer<? super A, ? super B> action) {
+
+        if (a.overlaps(b.getBoundsX(), b.getBoundsY(), b.getBoundsWidth(),
+                b.getBoundsHeight()) && a.intersects(b)) {
+            action.accept(a, b);
+        }
+    }
+
+    /**
+     * Returns the sprites sorted by the left edges of their bounding boxes.
+     * The order of the last call is taken over and repaired by an insertion
+     * sort, which is almost linear if the sprites moved only a little.
+     *
+     * @return the sorted sprites
+     */
+    private List<T> sweepOrder() {
+
+        if (sweepOrder == null) {
+            sweepOrder = new ArrayList<>(this);
+            sweepModCount = changes();
+        }
+        else if (sweepModCount != changes()) {
+            // keep the order of the remaining sprites, add the new ones
+            Set<T> added = Collections.newSetFromMap(new IdentityHashMap<>());
+            added.addAll(this);
+            sweepOrder.removeIf(s -> !added.remove(s));
+
+            for (T t : this) {
+                if (added.remove(t)) {
+                    sweepOrder.add(t);
+                }
+            }
+
+            sweepModCount = changes();
+        }
+
+        List<T> order = sweepOrder;
+
+        for (int i = 1; i < order.size(); i++) {
+            T t = order.get(i);
+            int x = t.getBoundsX();
+            int k = i - 1;
+
+            while ((k >= 0) && (order.get(k).getBoundsX() > x)) {
+                order.set(k + 1, order.get(k));
+                k--;
+            }
+
+            order.set(k + 1, t);
+        }
+
+        return order;
+    }
 }
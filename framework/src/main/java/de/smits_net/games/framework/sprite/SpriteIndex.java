@@ -0,0 +1,135 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.sprite;
+
+import java.awt.Rectangle;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Index of sprites by their position, used to find the sprites that may
+ * collide with a sprite without testing every sprite of a game. The index
+ * works on the bounding boxes of the sprites (see {@link Sprite#getBounds()}).
+ * <p>
+ * Sprites do not report their movements to the index. After sprites moved
+ * the index has to be updated with {@link #update()} or
+ * {@link #update(Sprite)}, usually once per frame after all sprites moved.
+ * A {@link SpriteCollection} with an index does this automatically when its
+ * sprites are moved with {@link SpriteCollection#move()}.
+ * <p>
+ * Indexes are not thread safe. The index must not be modified while a query
+ * is running, i.e. by the filter or action passed to the query.
+ *
+ * @param <T> type of the sprites
+ */
+public interface SpriteIndex<T extends Sprite> {
+
+    /**
+     * Adds a sprite to the index. If the sprite is already in the index, its
+     * position is updated.
+     *
+     * @param sprite the sprite
+     */
+    void add(T sprite);
+
+    /**
+     * Removes a sprite from the index.
+     *
+     * @param sprite the sprite
+     * @return {@code true} if the sprite was in the index
+     */
+    boolean remove(Sprite sprite);
+
+    /**
+     * Updates the position of a sprite in the index after it moved.
+     *
+     * @param sprite the sprite
+     */
+    void update(T sprite);
+
+    /**
+     * Updates the positions of all sprites in the index.
+     */
+    void update();
+
+    /**
+     * Makes the index contain exactly the given sprites. Sprites already in
+     * the index are only updated, sprites not in the collection are removed.
+     *
+     * @param sprites the sprites
+     */
+    void synchronize(Collection<? extends T> sprites);
+
+    /**
+     * Removes all sprites from the index.
+     */
+    void clear();
+
+    /**
+     * Returns the number of sprites in the index.
+     *
+     * @return number of sprites
+     */
+    int size();
+
+    /**
+     * Searches a sprite whose bounding box overlaps the given area. Every
+     * sprite is passed at most once to the filter, in no particular order.
+     *
+     * @param x x coordinate of the area
+     * @param y y coordinate of the area
+     * @param width width of the area
+     * @param height height of the area
+     * @param filter condition the sprite has to fulfill
+     * @return the first sprite found or {@code null} if none
+     */
+    T find(int x, int y, int width, int height, Predicate<? super T> filter);
+
+    /**
+     * Performs an action for every sprite whose bounding box overlaps the
+     * given area.
+     *
+     * @param area the area
+     * @param action the action
+     */
+    default void forEach(Rectangle area, Consumer<? super T> action) {
+        find(area.x, area.y, area.width, area.height, t -> {
+            action.accept(t);
+            return false;
+        });
+    }
+
+    /**
+     * Searches a sprite of the index intersecting the given sprite (see
+     * {@link Sprite#intersects(Sprite)}). The given sprite itself is
+     * ignored.
+     *
+     * @param sp the sprite
+     * @param filter condition the sprite found has to fulfill
+     * @return the first sprite found or {@code null} if none
+     */
+    default T findIntersecting(Sprite sp, Predicate<? super T> filter) {
+        return find(sp.getBoundsX(), sp.getBoundsY(), sp.getBoundsWidth(),
+                sp.getBoundsHeight(),
+                t -> (t != sp) && filter.test(t) && sp.intersects(t));
+    }
+
+    /**
+     * Performs an action for every sprite of the index intersecting the
+     * given sprite (see {@link Sprite#intersects(Sprite)}). The given sprite
+     * itself is ignored.
+     *
+     * @param sp the sprite
+     * @param action the action
+     */
+    default void forEachIntersecting(Sprite sp, Consumer<? super T> action) {
+        find(sp.getBoundsX(), sp.getBoundsY(), sp.getBoundsWidth(),
+                sp.getBoundsHeight(), t -> {
+                    if ((t != sp) && sp.intersects(t)) {
+                        action.accept(t);
+                    }
+
+                    return false;
+                });
+    }
+}
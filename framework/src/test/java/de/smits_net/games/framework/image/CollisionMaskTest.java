@@ -0,0 +1,182 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Compares the tests of the {@link CollisionMask} with a comparison of
+ * the single pixels.
+ */
+class CollisionMaskTest {
+
+    /** Source of the images and offsets. */
+    private final Random random = new Random(5);
+
+    /**
+     * The mask contains the pixels with an alpha value of at least the
+     * threshold.
+     */
+    @Test
+    void solidPixelsMatchImage() {
+
+        for (int n = 0; n < 50; n++) {
+            BufferedImage image = randomImage();
+            CollisionMask mask = new CollisionMask(image);
+
+            assertEquals(image.getWidth(), mask.getWidth());
+            assertEquals(image.getHeight(), mask.getHeight());
+
+            for (int y = -1; y <= image.getHeight(); y++) {
+                for (int x = -1; x <= image.getWidth(); x++) {
+                    assertEquals(solid(image, x, y), mask.isSolid(x, y),
+                            x + "," + y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Two masks overlap exactly if a solid pixel of one mask lies on a
+     * solid pixel of the other mask, for positive and negative offsets.
+     */
+    @Test
+    void masksMatchBruteForce() {
+
+        for (int n = 0; n < 300; n++) {
+            CollisionMask a = new CollisionMask(randomImage());
+            CollisionMask b = new CollisionMask(randomImage());
+
+            for (int k = 0; k < 20; k++) {
+                int dx = random.nextInt(a.getWidth() + b.getWidth() + 20)
+                        - b.getWidth() - 10;
+                int dy = random.nextInt(a.getHeight() + b.getHeight() + 4)
+                        - b.getHeight() - 2;
+
+                assertEquals(overlaps(a, b, dx, dy), a.overlaps(b, dx, dy),
+                        () -> a.getWidth() + "x" + a.getHeight() + " and "
+                                + b.getWidth() + "x" + b.getHeight()
+                                + " at " + dx + "," + dy);
+            }
+        }
+    }
+
+    /**
+     * A mask overlaps a rectangle exactly if a solid pixel lies inside the
+     * rectangle.
+     */
+    @Test
+    void rectanglesMatchBruteForce() {
+
+        for (int n = 0; n < 300; n++) {
+            CollisionMask mask = new CollisionMask(randomImage());
+
+            for (int k = 0; k < 20; k++) {
+                int x = random.nextInt(mask.getWidth() + 80) - 40;
+                int y = random.nextInt(mask.getHeight() + 10) - 5;
+                int w = random.nextInt(100);
+                int h = random.nextInt(6);
+                boolean expected = false;
+
+                for (int py = y; py < y + h; py++) {
+                    for (int px = x; px < x + w; px++) {
+                        expected |= mask.isSolid(px, py);
+                    }
+                }
+
+                assertEquals(expected, mask.overlaps(x, y, w, h),
+                        x + "," + y + " " + w + "x" + h);
+            }
+        }
+    }
+
+    /**
+     * Masks are cached per image, transparent images never collide.
+     */
+    @Test
+    void cacheAndTransparentImages() {
+
+        BufferedImage image = new BufferedImage(70, 3,
+                BufferedImage.TYPE_INT_ARGB);
+        CollisionMask mask = CollisionMask.of(image);
+
+        assertSame(mask, CollisionMask.of(image));
+        assertFalse(mask.overlaps(mask, 0, 0));
+        assertFalse(mask.overlaps(0, 0, 70, 3));
+    }
+
+    /**
+     * Create an image with random size and alpha values, many images are
+     * wider than one word of the mask.
+     *
+     * @return the image
+     */
+    private BufferedImage randomImage() {
+
+        int width = 1 + random.nextInt(150);
+        int height = 1 + random.nextInt(8);
+        BufferedImage image = new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_ARGB);
+
+        // few solid pixels, otherwise nearly all masks would overlap
+        int density = 1 + random.nextInt(40);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int alpha = (random.nextInt(density) == 0)
+                        ? CollisionMask.ALPHA_THRESHOLD + random.nextInt(128)
+                        : random.nextInt(CollisionMask.ALPHA_THRESHOLD);
+                image.setRGB(x, y, (alpha << 24) | 0x336699);
+            }
+        }
+
+        return image;
+    }
+
+    /**
+     * Checks whether a pixel of an image is solid.
+     *
+     * @param image the image
+     * @param x x coordinate of the pixel
+     * @param y y coordinate of the pixel
+     * @return {@code true} if the pixel is inside and solid
+     */
+    private static boolean solid(BufferedImage image, int x, int y) {
+
+        if ((x < 0) || (y < 0) || (x >= image.getWidth())
+                || (y >= image.getHeight())) {
+            return false;
+        }
+
+        return (image.getRGB(x, y) >>> 24) >= CollisionMask.ALPHA_THRESHOLD;
+    }
+
+    /**
+     * Compare two masks pixel by pixel.
+     *
+     * @param a first mask
+     * @param b second mask
+     * @param dx x position of the second mask relative to the first
+     * @param dy y position of the second mask relative to the first
+     * @return {@code true} if two solid pixels lie on each other
+     */
+    private static boolean overlaps(CollisionMask a, CollisionMask b,
+                                    int dx, int dy) {
+
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                if (a.isSolid(x, y) && b.isSolid(x - dx, y - dy)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
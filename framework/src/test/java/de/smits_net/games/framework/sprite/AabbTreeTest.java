@@ -0,0 +1,434 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.sprite;
+
+import de.smits_net.games.framework.board.Board;
+import de.smits_net.games.framework.image.ImagePack;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the queries of the {@link AabbTree} with a brute force search
+ * over all sprites while the sprites move, are added and removed.
+ */
+class AabbTreeTest {
+
+    /** Width of the area the sprites are placed in. */
+    private static final int WORLD_WIDTH = 3000;
+
+    /** Height of the area the sprites are placed in. */
+    private static final int WORLD_HEIGHT = 2000;
+
+    /** Number of sprites. */
+    private static final int SPRITES = 3000;
+
+    /** Number of frames the sprites move. */
+    private static final int FRAMES = 60;
+
+    /** Board the sprites belong to. */
+    private final Board board = new Board(10, 800, 400, Color.BLACK) {
+        @Override
+        public boolean updateGame() {
+            return true;
+        }
+
+        @Override
+        public void drawGame(Graphics g) {
+            // nothing to draw
+        }
+    };
+
+    /** Images of different sizes, the last one much larger than a cell. */
+    private final ImagePack[] images = {
+            image(4, 4), image(20, 12), image(300, 80) };
+
+    /** Source of the positions and velocities. */
+    private final Random random = new Random(11);
+
+    /**
+     * Region queries return exactly the sprites whose bounding boxes
+     * overlap the region, each of them once.
+     */
+    @Test
+    void regionQueriesMatchBruteForce() {
+
+        SpriteCollection<Sprite> sprites = createSprites(SPRITES);
+        AabbTree<Sprite> tree = new AabbTree<>();
+        tree.synchronize(sprites);
+
+        for (int frame = 0; frame < FRAMES; frame++) {
+            moveAndReplace(sprites, tree, frame);
+
+            for (int q = 0; q < 100; q++) {
+                Rectangle area = new Rectangle(random.nextInt(WORLD_WIDTH),
+                        random.nextInt(WORLD_HEIGHT), random.nextInt(200),
+                        random.nextInt(200));
+
+                Set<Sprite> expected = identitySet();
+
+                for (Sprite s : sprites) {
+                    if (s.overlaps(area.x, area.y, area.width,
+                            area.height)) {
+                        expected.add(s);
+                    }
+                }
+
+                Set<Sprite> found = identitySet();
+                tree.forEach(area, s -> assertTrue(found.add(s),
+                        "sprite reported twice"));
+
+                assertEquals(expected, found);
+            }
+        }
+    }
+
+    /**
+     * Every pair of sprites with overlapping bounding boxes is reported
+     * exactly once.
+     */
+    @Test
+    void pairsMatchBruteForce() {
+
+        SpriteCollection<Sprite> sprites = createSprites(SPRITES);
+        AabbTree<Sprite> tree = new AabbTree<>();
+        tree.synchronize(sprites);
+
+        for (int frame = 0; frame < FRAMES; frame++) {
+            moveAndReplace(sprites, tree, frame);
+
+            if (frame % 20 != 0) {
+                continue;
+            }
+
+            Map<Sprite, Integer> ids = new IdentityHashMap<>();
+
+            for (int i = 0; i < sprites.size(); i++) {
+                ids.put(sprites.get(i), i);
+            }
+
+            Set<Long> expected = new HashSet<>();
+
+            for (int i = 0; i < sprites.size(); i++) {
+                Sprite a = sprites.get(i);
+
+                for (int j = i + 1; j < sprites.size(); j++) {
+                    Sprite b = sprites.get(j);
+
+                    if (a.overlaps(b.getBoundsX(), b.getBoundsY(),
+                            b.getBoundsWidth(), b.getBoundsHeight())) {
+                        expected.add(pair(i, j));
+                    }
+                }
+            }
+
+            Set<Long> found = new HashSet<>();
+            tree.forEachPair((a, b) -> assertTrue(
+                    found.add(pair(ids.get(a), ids.get(b))),
+                    "pair reported twice"));
+
+            assertEquals(expected, found);
+        }
+    }
+
+    /**
+     * A ray cast returns a sprite whose bounding box is entered first
+     * along the line.
+     */
+    @Test
+    void raycastFindsClosestHit() {
+
+        SpriteCollection<Sprite> sprites = createSprites(SPRITES);
+        AabbTree<Sprite> tree = new AabbTree<>();
+        tree.synchronize(sprites);
+
+        for (int frame = 0; frame < FRAMES; frame++) {
+            moveAndReplace(sprites, tree, frame);
+
+            for (int q = 0; q < 50; q++) {
+                double fromX = random.nextInt(WORLD_WIDTH);
+                double fromY = random.nextInt(WORLD_HEIGHT);
+                double toX = random.nextInt(WORLD_WIDTH);
+                double toY = random.nextInt(WORLD_HEIGHT);
+
+                double best = Double.MAX_VALUE;
+
+                for (Sprite s : sprites) {
+                    double t = entry(fromX, fromY, toX, toY, s);
+
+                    if ((t >= 0) && (t < best)) {
+                        best = t;
+                    }
+                }
+
+                Sprite hit = tree.raycast(fromX, fromY, toX, toY, s -> true);
+
+                if (best == Double.MAX_VALUE) {
+                    assertNull(hit);
+                }
+                else {
+                    // several boxes may be entered at the same point
+                    assertEquals(best, entry(fromX, fromY, toX, toY, hit),
+                            1e-12);
+                }
+            }
+        }
+    }
+
+    /**
+     * The tree stays balanced while sprites are added and removed in an
+     * unfavourable order.
+     */
+    @Test
+    void treeStaysBalanced() {
+
+        AabbTree<Sprite> tree = new AabbTree<>(0);
+        List<Sprite> sprites = new ArrayList<>();
+
+        // sorted insertion degenerates unbalanced trees to lists
+        for (int i = 0; i < 4096; i++) {
+            Sprite s = sprite(i * 10, 0, images[0]);
+            sprites.add(s);
+            tree.add(s);
+            assertBalanced(tree);
+        }
+
+        for (int i = 0; i < 4096; i += 2) {
+            assertTrue(tree.remove(sprites.get(i)));
+            assertBalanced(tree);
+        }
+
+        assertEquals(2048, tree.size());
+    }
+
+    /**
+     * Sprites far away from all others become the sibling of the root and
+     * are balanced there.
+     */
+    @Test
+    void distantSpritesStayBalanced() {
+
+        AabbTree<Sprite> tree = new AabbTree<>(0);
+
+        for (int i = 0; i < 1024; i++) {
+            tree.add(sprite((i % 32) * 10, (i / 32) * 10, images[0]));
+        }
+
+        // every sprite is further away than the extent of the tree
+        for (long x = 1280; x < Integer.MAX_VALUE; x *= 4) {
+            tree.add(sprite((int) x, 0, images[0]));
+            assertBalanced(tree);
+        }
+    }
+
+    /**
+     * Removing, synchronizing and clearing keep the tree consistent.
+     */
+    @Test
+    void removeSynchronizeAndClear() {
+
+        AabbTree<Sprite> tree = new AabbTree<>();
+
+        assertEquals(-1, tree.getHeight());
+        assertNull(tree.find(0, 0, WORLD_WIDTH, WORLD_HEIGHT, s -> true));
+        assertNull(tree.raycast(0, 0, WORLD_WIDTH, WORLD_HEIGHT, s -> true));
+
+        Sprite a = sprite(10, 10, images[1]);
+        Sprite b = sprite(15, 15, images[1]);
+        Sprite c = sprite(1000, 1000, images[1]);
+
+        tree.add(a);
+        tree.add(b);
+        tree.add(a);
+        assertEquals(2, tree.size());
+
+        tree.synchronize(List.of(b, c));
+        assertEquals(2, tree.size());
+        assertFalse(tree.remove(a));
+        assertSame(c, tree.find(990, 990, 20, 20, s -> true));
+        assertNull(tree.find(0, 0, 5, 5, s -> true));
+
+        assertTrue(tree.remove(b));
+        assertNull(tree.find(0, 0, 100, 100, s -> true));
+
+        tree.clear();
+        assertEquals(0, tree.size());
+        assertEquals(-1, tree.getHeight());
+    }
+
+    /**
+     * Checks that the tree is not higher than an AVL tree with the same
+     * number of leaves can be, i.e. 1.44 log2(n).
+     *
+     * @param tree the tree
+     */
+    private static void assertBalanced(AabbTree<?> tree) {
+
+        double bound = 1.4405 * Math.log(tree.size()) / Math.log(2);
+
+        assertTrue(tree.getHeight() <= bound, () -> "height "
+                + tree.getHeight() + " with " + tree.size() + " sprites");
+    }
+
+    /**
+     * Move all sprites, replace some of them every ten frames and update
+     * the tree.
+     *
+     * @param sprites the sprites
+     * @param tree the tree
+     * @param frame number of the frame
+     */
+    private void moveAndReplace(SpriteCollection<Sprite> sprites,
+                                AabbTree<Sprite> tree, int frame) {
+
+        sprites.move();
+
+        if (frame % 10 == 3) {
+            for (int k = 0; k < 5; k++) {
+                sprites.remove(random.nextInt(sprites.size()));
+                sprites.add(randomSprite());
+            }
+
+            tree.synchronize(sprites);
+        }
+
+        tree.update();
+        assertBalanced(tree);
+    }
+
+    /**
+     * Create moving sprites at random positions.
+     *
+     * @param count number of sprites
+     * @return the sprites
+     */
+    private SpriteCollection<Sprite> createSprites(int count) {
+
+        SpriteCollection<Sprite> sprites = new SpriteCollection<>();
+
+        for (int i = 0; i < count; i++) {
+            sprites.add(randomSprite());
+        }
+
+        return sprites;
+    }
+
+    /**
+     * Create a moving sprite at a random position, every tenth sprite is
+     * large.
+     *
+     * @return the sprite
+     */
+    private Sprite randomSprite() {
+
+        ImagePack pack = (random.nextInt(10) == 0) ? images[2]
+                : images[random.nextInt(2)];
+        Sprite s = sprite(random.nextInt(WORLD_WIDTH),
+                random.nextInt(WORLD_HEIGHT), pack);
+        s.setVelocity(new Velocity(random.nextDouble() * 6 - 3,
+                random.nextDouble() * 6 - 3));
+
+        return s;
+    }
+
+    /**
+     * Create a sprite.
+     *
+     * @param x x coordinate of the sprite
+     * @param y y coordinate of the sprite
+     * @param pack image of the sprite
+     * @return the sprite
+     */
+    private Sprite sprite(int x, int y, ImagePack pack) {
+        return new Sprite(board, new Point(x, y),
+                Sprite.BoundaryPolicy.NONE, pack);
+    }
+
+    /**
+     * Create an empty image.
+     *
+     * @param width width of the image
+     * @param height height of the image
+     * @return the image
+     */
+    private static ImagePack image(int width, int height) {
+        return new ImagePack(new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_ARGB));
+    }
+
+    /**
+     * Create a set comparing the sprites by identity.
+     *
+     * @return the set
+     */
+    private static Set<Sprite> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Combine the numbers of two sprites to a key of the pair.
+     *
+     * @param i number of the first sprite
+     * @param j number of the second sprite
+     * @return the key, independent of the order of the sprites
+     */
+    private static long pair(int i, int j) {
+        return ((long) Math.min(i, j) << 32) | Math.max(i, j);
+    }
+
+    /**
+     * Calculate where a line enters the bounding box of a sprite.
+     *
+     * @param fromX x coordinate of the start point
+     * @param fromY y coordinate of the start point
+     * @param toX x coordinate of the end point
+     * @param toY y coordinate of the end point
+     * @param s the sprite
+     * @return fraction of the line before the box, negative if the line
+     *      misses the box
+     */
+    private static double entry(double fromX, double fromY, double toX,
+                                double toY, Sprite s) {
+
+        double[] from = { fromX, fromY };
+        double[] delta = { toX - fromX, toY - fromY };
+        double[] min = { s.getBoundsX(), s.getBoundsY() };
+        double[] max = { s.getBoundsX() + s.getBoundsWidth(),
+                s.getBoundsY() + s.getBoundsHeight() };
+        double tMin = 0.0;
+        double tMax = 1.0;
+
+        for (int axis = 0; axis < 2; axis++) {
+            if (delta[axis] == 0.0) {
+                if ((from[axis] < min[axis]) || (from[axis] > max[axis])) {
+                    return -1.0;
+                }
+            }
+            else {
+                double t1 = (min[axis] - from[axis]) / delta[axis];
+                double t2 = (max[axis] - from[axis]) / delta[axis];
+                tMin = Math.max(tMin, Math.min(t1, t2));
+                tMax = Math.min(tMax, Math.max(t1, t2));
+            }
+        }
+
+        return (tMin <= tMax) ? tMin : -1.0;
+    }
+}
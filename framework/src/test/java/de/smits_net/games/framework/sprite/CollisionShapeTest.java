@@ -0,0 +1,369 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.sprite;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Polygon;
+import java.awt.geom.Area;
+import java.awt.geom.Line2D;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the collision tests of the {@link CollisionShape} with the
+ * intersection of the borders calculated by {@link Area}.
+ */
+class CollisionShapeTest {
+
+    /** Number of random pairs of borders per test. */
+    private static final int PAIRS = 5000;
+
+    /** Source of the borders and offsets. */
+    private final Random random = new Random(17);
+
+    /**
+     * Convex and concave borders intersect exactly if their areas overlap
+     * or their edges touch.
+     */
+    @Test
+    void concaveBordersMatchArea() {
+
+        for (int n = 0; n < PAIRS; n++) {
+            Polygon p = simpleBorder();
+            Polygon q = simpleBorder();
+            int dx = random.nextInt(60) - 30;
+            int dy = random.nextInt(60) - 30;
+
+            assertEquals(touches(p, moved(q, dx, dy)),
+                    CollisionShape.of(p).intersects(CollisionShape.of(q),
+                            dx, dy), () -> describe(p, q, dx, dy));
+        }
+    }
+
+    /**
+     * Rectangles are tested like borders with four corners.
+     */
+    @Test
+    void rectanglesMatchArea() {
+
+        for (int n = 0; n < PAIRS; n++) {
+            Polygon p = simpleBorder();
+            int x1 = random.nextInt(60) - 10;
+            int y1 = random.nextInt(60) - 10;
+            int x2 = x1 + random.nextInt(20);
+            int y2 = y1 + random.nextInt(20);
+            Polygon r = new Polygon(new int[] { x1, x2, x2, x1 },
+                    new int[] { y1, y1, y2, y2 }, 4);
+
+            assertEquals(touches(p, r),
+                    CollisionShape.of(p).intersects(x1, y1, x2, y2),
+                    () -> describe(p, r, 0, 0));
+        }
+    }
+
+    /**
+     * Repeated corners and corners on the straight line between their
+     * neighbours do not change the result.
+     */
+    @Test
+    void repeatedAndCollinearCornersMatchArea() {
+
+        for (int n = 0; n < PAIRS; n++) {
+            Polygon p = simpleBorder();
+            Polygon q = simpleBorder();
+            Polygon extended = withExtraCorners(p);
+            int dx = random.nextInt(60) - 30;
+            int dy = random.nextInt(60) - 30;
+
+            assertEquals(touches(p, moved(q, dx, dy)),
+                    CollisionShape.of(extended).intersects(
+                            CollisionShape.of(q), dx, dy),
+                    () -> describe(extended, q, dx, dy));
+        }
+    }
+
+    /**
+     * Shapes of self-intersecting borders may be larger than the border,
+     * but never miss an intersection.
+     */
+    @Test
+    void selfIntersectingBordersAreCovered() {
+
+        Polygon bowTie = new Polygon(new int[] { 0, 20, 20, 0 },
+                new int[] { 0, 20, 0, 20 }, 4);
+        CollisionShape shape = CollisionShape.of(bowTie);
+
+        for (int x = -5; x <= 25; x++) {
+            for (int y = -5; y <= 25; y++) {
+                if (touches(bowTie, square(x, y, 1))) {
+                    assertTrue(shape.intersects(x, y, x + 1, y + 1),
+                            x + "," + y);
+                }
+            }
+        }
+
+        int found = 0;
+
+        while (found < PAIRS) {
+            Polygon p = randomBorder();
+
+            if (isSimple(p)) {
+                continue;
+            }
+
+            found++;
+            Polygon q = simpleBorder();
+            int dx = random.nextInt(60) - 30;
+            int dy = random.nextInt(60) - 30;
+
+            if (touches(p, moved(q, dx, dy))) {
+                assertTrue(CollisionShape.of(p).intersects(
+                        CollisionShape.of(q), dx, dy),
+                        () -> describe(p, q, dx, dy));
+            }
+        }
+    }
+
+    /**
+     * Borders without an area, i.e. a single point or a line, still
+     * collide.
+     */
+    @Test
+    void degenerateBorders() {
+
+        CollisionShape point = CollisionShape.of(
+                new Polygon(new int[] { 5 }, new int[] { 5 }, 1));
+        CollisionShape line = CollisionShape.of(
+                new Polygon(new int[] { 0, 10, 20 }, new int[] { 0, 10, 20 },
+                        3));
+        CollisionShape square = CollisionShape.of(square(0, 0, 10));
+
+        assertTrue(point.intersects(square, 0, 0));
+        assertTrue(point.intersects(square, -5, -5));
+        assertFalse(point.intersects(square, -6, 0));
+        assertTrue(line.intersects(square, 20, 20));
+        assertFalse(line.intersects(square, 11, 0));
+        assertTrue(line.intersects(line, 0, 0));
+        assertTrue(line.intersects(5, 5, 6, 6));
+        assertFalse(line.intersects(8, 0, 10, 2));
+        assertFalse(CollisionShape.of(new Polygon())
+                .intersects(square, 0, 0));
+    }
+
+    /**
+     * Create a random border without crossing edges and repeated corners.
+     *
+     * @return the border
+     */
+    private Polygon simpleBorder() {
+
+        while (true) {
+            Polygon p = randomBorder();
+
+            if (isSimple(p)) {
+                return p;
+            }
+        }
+    }
+
+    /**
+     * Create a random border with corners at random angles around a center,
+     * mostly concave and sometimes crossing itself after rounding.
+     *
+     * @return the border
+     */
+    private Polygon randomBorder() {
+
+        int n = 3 + random.nextInt(10);
+        double[] angles = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            angles[i] = random.nextDouble() * 2 * Math.PI;
+        }
+
+        Arrays.sort(angles);
+        Polygon p = new Polygon();
+
+        for (int i = 0; i < n; i++) {
+            double radius = 3 + random.nextDouble() * 20;
+            p.addPoint(20 + (int) Math.round(Math.cos(angles[i]) * radius),
+                    20 + (int) Math.round(Math.sin(angles[i]) * radius));
+        }
+
+        if (random.nextInt(4) == 0) {
+            // swap two corners to get crossing edges
+            int i = random.nextInt(n);
+            int j = random.nextInt(n);
+            int x = p.xpoints[i];
+            int y = p.ypoints[i];
+            p.xpoints[i] = p.xpoints[j];
+            p.ypoints[i] = p.ypoints[j];
+            p.xpoints[j] = x;
+            p.ypoints[j] = y;
+            p.invalidate();
+        }
+
+        return p;
+    }
+
+    /**
+     * Add repeated corners and corners in the middle of the edges.
+     *
+     * @param p the border
+     * @return border with the same outline and additional corners
+     */
+    private Polygon withExtraCorners(Polygon p) {
+
+        Polygon result = new Polygon();
+
+        for (int i = 0; i < p.npoints; i++) {
+            int j = (i + 1) % p.npoints;
+            result.addPoint(p.xpoints[i], p.ypoints[i]);
+
+            if (random.nextInt(4) == 0) {
+                result.addPoint(p.xpoints[i], p.ypoints[i]);
+            }
+
+            int dx = p.xpoints[j] - p.xpoints[i];
+            int dy = p.ypoints[j] - p.ypoints[i];
+
+            if ((dx % 2 == 0) && (dy % 2 == 0)) {
+                result.addPoint(p.xpoints[i] + dx / 2, p.ypoints[i] + dy / 2);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether two borders intersect, i.e. their areas overlap or
+     * their edges touch.
+     *
+     * @param p first border
+     * @param q second border
+     * @return {@code true} if the borders intersect
+     */
+    private static boolean touches(Polygon p, Polygon q) {
+
+        Area area = new Area(p);
+        area.intersect(new Area(q));
+
+        if (!area.isEmpty()) {
+            return true;
+        }
+
+        // borders on a straight line have no area but may lie inside
+        // the other border
+        for (int i = 0; i < p.npoints; i++) {
+            if (q.contains(p.xpoints[i], p.ypoints[i])) {
+                return true;
+            }
+        }
+
+        for (int k = 0; k < q.npoints; k++) {
+            if (p.contains(q.xpoints[k], q.ypoints[k])) {
+                return true;
+            }
+        }
+
+        for (int i = 0; i < p.npoints; i++) {
+            int i2 = (i + 1) % p.npoints;
+
+            for (int k = 0; k < q.npoints; k++) {
+                int k2 = (k + 1) % q.npoints;
+
+                if (Line2D.linesIntersect(p.xpoints[i], p.ypoints[i],
+                        p.xpoints[i2], p.ypoints[i2], q.xpoints[k],
+                        q.ypoints[k], q.xpoints[k2], q.ypoints[k2])) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether a border has neither crossing edges nor repeated
+     * corners.
+     *
+     * @param p the border
+     * @return {@code true} for a simple border
+     */
+    private static boolean isSimple(Polygon p) {
+
+        int n = p.npoints;
+
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if ((p.xpoints[i] == p.xpoints[j])
+                        && (p.ypoints[i] == p.ypoints[j])) {
+                    return false;
+                }
+
+                if ((j == i + 1) || ((i == 0) && (j == n - 1))) {
+                    continue;
+                }
+
+                if (Line2D.linesIntersect(p.xpoints[i], p.ypoints[i],
+                        p.xpoints[(i + 1) % n], p.ypoints[(i + 1) % n],
+                        p.xpoints[j], p.ypoints[j], p.xpoints[(j + 1) % n],
+                        p.ypoints[(j + 1) % n])) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Create a moved copy of a border.
+     *
+     * @param p the border
+     * @param dx movement in x direction
+     * @param dy movement in y direction
+     * @return the moved border
+     */
+    private static Polygon moved(Polygon p, int dx, int dy) {
+
+        Polygon result = new Polygon(p.xpoints, p.ypoints, p.npoints);
+        result.translate(dx, dy);
+
+        return result;
+    }
+
+    /**
+     * Create a square.
+     *
+     * @param x left edge
+     * @param y upper edge
+     * @param size length of the edges
+     * @return the square
+     */
+    private static Polygon square(int x, int y, int size) {
+        return new Polygon(new int[] { x, x + size, x + size, x },
+                new int[] { y, y, y + size, y + size }, 4);
+    }
+
+    /**
+     * Describe two borders for the message of a failed test.
+     *
+     * @param p first border
+     * @param q second border
+     * @param dx offset of the second border in x direction
+     * @param dy offset of the second border in y direction
+     * @return the description
+     */
+    private static String describe(Polygon p, Polygon q, int dx, int dy) {
+        return Arrays.toString(Arrays.copyOf(p.xpoints, p.npoints))
+                + Arrays.toString(Arrays.copyOf(p.ypoints, p.npoints))
+                + " and " + Arrays.toString(Arrays.copyOf(q.xpoints, q.npoints))
+                + Arrays.toString(Arrays.copyOf(q.ypoints, q.npoints))
+                + " at " + dx + "," + dy;
+    }
+}
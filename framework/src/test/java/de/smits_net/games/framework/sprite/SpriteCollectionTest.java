@@ -0,0 +1,136 @@
+/* (c) 2026 Thomas Smits */
+package de.smits_net.games.framework.sprite;
+
+import de.smits_net.games.framework.board.Board;
+import de.smits_net.games.framework.image.ImagePack;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the index and the order of the sweep of a
+ * {@link SpriteCollection} follow the changes of the collection.
+ */
+class SpriteCollectionTest {
+
+    /** Board the sprites belong to. */
+    private final Board board = new Board(10, 800, 400, Color.BLACK) {
+        @Override
+        public boolean updateGame() {
+            return true;
+        }
+
+        @Override
+        public void drawGame(Graphics g) {
+            // nothing to draw
+        }
+    };
+
+    /** Image of the sprites. */
+    private final ImagePack image = new ImagePack(new BufferedImage(20, 12,
+            BufferedImage.TYPE_INT_ARGB));
+
+    /** Source of the positions. */
+    private final Random random = new Random(3);
+
+    /**
+     * Sprites replaced through a list iterator are found by the queries,
+     * the sprites they replaced are not.
+     */
+    @Test
+    void replaceThroughListIterator() {
+
+        SpriteCollection<Sprite> sprites = new SpriteCollection<>();
+
+        for (int i = 0; i < 200; i++) {
+            sprites.add(randomSprite());
+        }
+
+        sprites.setIndex(new AabbTree<>());
+
+        // build the index and the order of the sweep before replacing
+        sprites.intersects(sprites.get(0));
+        sprites.forEachOverlap((a, b) -> { });
+
+        Set<Sprite> replaced = new HashSet<>();
+
+        for (ListIterator<Sprite> it = sprites.listIterator();
+                it.hasNext();) {
+            Sprite old = it.next();
+
+            if (random.nextBoolean()) {
+                replaced.add(old);
+                it.set(randomSprite());
+            }
+        }
+
+        assertFalse(replaced.isEmpty());
+
+        for (int n = 0; n < 100; n++) {
+            Sprite probe = randomSprite();
+            Set<Sprite> expected = new HashSet<>();
+
+            for (Sprite s : sprites) {
+                if (probe.intersects(s)) {
+                    expected.add(s);
+                }
+            }
+
+            Set<Sprite> found = new HashSet<>();
+            sprites.forEachIntersecting(probe, found::add);
+
+            assertEquals(expected, found);
+            assertEquals(!expected.isEmpty(), sprites.intersects(probe));
+        }
+
+        Map<Sprite, Integer> ids = new IdentityHashMap<>();
+
+        for (int i = 0; i < sprites.size(); i++) {
+            ids.put(sprites.get(i), i);
+        }
+
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < sprites.size(); i++) {
+            for (int j = i + 1; j < sprites.size(); j++) {
+                if (sprites.get(i).intersects(sprites.get(j))) {
+                    expected.add(((long) i << 32) | j);
+                }
+            }
+        }
+
+        Set<Long> found = new HashSet<>();
+        sprites.forEachOverlap((a, b) -> {
+            assertFalse(replaced.contains(a) || replaced.contains(b));
+
+            int i = Math.min(ids.get(a), ids.get(b));
+            int j = Math.max(ids.get(a), ids.get(b));
+            assertTrue(found.add(((long) i << 32) | j), "pair reported twice");
+        });
+
+        assertEquals(expected, found);
+    }
+
+    /**
+     * Create a sprite at a random position.
+     *
+     * @return the sprite
+     */
+    private Sprite randomSprite() {
+        return new Sprite(board, new Point(random.nextInt(400),
+                random.nextInt(300)), Sprite.BoundaryPolicy.NONE, image);
+    }
+}